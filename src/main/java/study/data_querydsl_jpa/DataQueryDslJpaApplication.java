@@ -6,6 +6,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import study.data_querydsl_jpa.common.id.TimeOrderedUuid;
 
 import javax.persistence.EntityManager;
 import java.util.Optional;
@@ -27,9 +28,10 @@ public class DataQueryDslJpaApplication {
 
     //interface 에서 method 가 하나면 람다형식으로 변경 가능하다.
     //등록 및 수정 될때마다 AuditorAware 를 호출하여 자동으로 값을 채워 넣어 준다.
+    //createdBy, lastModifiedBy 는 uuid 컬럼 -> 문자열 대신 UUID 그대로 넘긴다.
     @Bean
-    public AuditorAware<String> auditorProvider() {
-        return () -> Optional.of(UUID.randomUUID().toString());
+    public AuditorAware<UUID> auditorProvider() {
+        return () -> Optional.of(TimeOrderedUuid.next());
     }
 
     //위 람다 형식 anonymous 형태로 구현 편한거 쓰면 됨.
@@ -0,0 +1,20 @@
+package study.data_querydsl_jpa.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 요청 값이 잘못된 경우 (허용하지 않는 정렬 속성, 필드, cursor 등) -> 500 이 아니라 400 으로 응답한다.
+ * IllegalArgumentException 을 상속하지 않는다. -> 리포지토리 예외 변환(InvalidDataAccessApiUsageException)에 걸리지 않고 그대로 올라간다.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    public BadRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,23 @@
+package study.data_querydsl_jpa.common;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * local 프로파일은 기존 ddl-auto: create 처럼 띄울 때마다 스키마를 새로 만든다. (InitMember 가 샘플 데이터를 다시 넣는다)
+ * 스키마 자체는 flyway 마이그레이션(db/migration)으로 만든다.
+ */
+@Profile("local")
+@Configuration
+public class LocalSchemaConfiguration {
+
+    @Bean
+    public FlywayMigrationStrategy cleanMigrateStrategy() {
+        return flyway -> {
+            flyway.clean();
+            flyway.migrate();
+        };
+    }
+}
@@ -0,0 +1,219 @@
+package study.data_querydsl_jpa.common.querydsl.support;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 카테시안 곱(조인 조건 누락) 감지 - P6Spy 이벤트 리스너
+ * p6spy-spring-boot-starter 는 JdbcEventListener 타입 빈을 자동으로 등록한다.
+ * <p>
+ * 1. 실행한 select SQL 검사 : on 절이 없는 join, cross join / 콤마 조인인데 where 절에서 해당 테이블을 전혀 참조하지 않으면
+ * -> MISSING_JOIN_CONDITION
+ * 2. 결과 row 수 검사 : 조인 쿼리의 결과 row 수가 드라이빙 테이블(from 첫번째 테이블) 추정 row 수 * rowMultiplier 보다 많으면
+ * -> ROW_EXPLOSION (minRows 이하는 검사하지 않는다)
+ * 감지하면 호출한 repository 메소드(없으면 첫번째 애플리케이션 코드)와 함께 warn 로그를 남기고 최근 목록(/stats/cartesian-joins)에 쌓는다.
+ * 같은 SQL + 유형은 처음 한번만 로그를 남기고 이후에는 횟수만 센다.
+ * <p>
+ * 1번 검사는 모든 SQL 에 대해 실행되므로 결과를 SQL 문자열별로 maxInspectedSql 개까지 기억한다. (LRU)
+ * -> 같은 prepared SQL 은 한번만 파싱한다.
+ * <p>
+ * 서브쿼리(괄호 안)는 검사하지 않는 단순한 문자열 검사이다. (SqlShape)
+ */
+@Slf4j
+@Component
+public class CartesianJoinDetector extends SimpleJdbcEventListener {
+
+    private static final String APP_PACKAGE = "study.data_querydsl_jpa.";
+    private static final String OWN_PACKAGE = CartesianJoinDetector.class.getPackageName();
+    private static final long ESTIMATE_TTL_NANOS = 60_000_000_000L;
+    private static final int MAX_FINDINGS = 100;
+
+    private final boolean enabled;
+    private final long rowMultiplier;
+    private final long minRows;
+    private final int maxInspectedSql;
+    private final Map<String, TableEstimate> estimates = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, JoinFinding> findings = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Optional<String>> inspected = new LinkedHashMap<>(16, 0.75f, true);
+
+    public CartesianJoinDetector(@Value("${sql-guard.cartesian.enabled:true}") boolean enabled,
+                                 @Value("${sql-guard.cartesian.row-multiplier:10}") long rowMultiplier,
+                                 @Value("${sql-guard.cartesian.min-rows:1000}") long minRows,
+                                 @Value("${sql-guard.cartesian.max-inspected-sql:1000}") int maxInspectedSql) {
+        this.enabled = enabled;
+        this.rowMultiplier = rowMultiplier;
+        this.minRows = minRows;
+        this.maxInspectedSql = maxInspectedSql;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (!enabled || e != null) {
+            return;
+        }
+        String sql = statementInformation.getSql();
+        inspectCached(sql).ifPresent(reason -> report(JoinFinding.Type.MISSING_JOIN_CONDITION, sql, reason, -1, -1));
+    }
+
+    @Override
+    public void onAfterResultSetClose(ResultSetInformation resultSetInformation, SQLException e) {
+        long rows = resultSetInformation.getCurrRow() + 1;
+        if (!enabled || e != null || rows <= minRows) {
+            return;
+        }
+        String sql = resultSetInformation.getSql();
+        SqlShape shape = SqlShape.parse(sql);
+        if (shape == null || shape.getTables().size() < 2) {
+            return;
+        }
+        long estimate = rowEstimate(resultSetInformation, shape.getTables().get(0));
+        if (estimate >= 0 && rows > Math.max(estimate, 1) * rowMultiplier) {
+            report(JoinFinding.Type.ROW_EXPLOSION, sql,
+                    rows + " rows from " + shape.getTables().get(0) + " (estimated " + estimate + " rows)", rows, estimate);
+        }
+    }
+
+    /**
+     * 최근 감지 목록 (최근 것부터, JoinFinding 은 불변이라 lock 밖에서 읽어도 된다)
+     */
+    public List<JoinFinding> findings() {
+        List<JoinFinding> result;
+        synchronized (findings) {
+            result = new ArrayList<>(findings.values());
+        }
+        Collections.reverse(result);
+        return Collections.unmodifiableList(result);
+    }
+
+    //파싱은 lock 밖에서 한다. (같은 SQL 을 동시에 처음 보면 두번 파싱할 수 있지만 결과는 같다)
+    Optional<String> inspectCached(String sql) {
+        if (sql == null) {
+            return Optional.empty();
+        }
+        synchronized (inspected) {
+            Optional<String> cached = inspected.get(sql);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Optional<String> result = inspect(sql);
+        synchronized (inspected) {
+            inspected.put(sql, result);
+            if (inspected.size() > maxInspectedSql) {
+                inspected.remove(inspected.keySet().iterator().next());
+            }
+        }
+        return result;
+    }
+
+    int inspectedSqlCount() {
+        synchronized (inspected) {
+            return inspected.size();
+        }
+    }
+
+    /**
+     * SQL 만 보고 조인 조건 누락을 찾는다.
+     *
+     * @return 누락 사유, 문제 없으면 empty
+     */
+    static Optional<String> inspect(String sql) {
+        SqlShape shape = SqlShape.parse(sql);
+        if (shape == null) {
+            return Optional.empty();
+        }
+        List<String> missing = shape.getJoins().stream()
+                .filter(join -> !join.hasCondition() && !shape.getWhere().contains(join.getAlias() + "."))
+                .map(join -> join.getKeyword() + " " + join.getTable())
+                .collect(Collectors.toList());
+        return missing.isEmpty() ? Optional.empty() : Optional.of("no join condition for " + String.join(", ", missing));
+    }
+
+    private void report(JoinFinding.Type type, String sql, String reason, long rows, long estimate) {
+        String key = type + "|" + sql;
+        synchronized (findings) {
+            JoinFinding finding = findings.get(key);
+            if (finding != null) {
+                findings.put(key, finding.occurred(rows));
+                return;
+            }
+            finding = new JoinFinding(type, sql, reason, origin(), rows, estimate);
+            findings.put(key, finding);
+            if (findings.size() > MAX_FINDINGS) {
+                findings.remove(findings.keySet().iterator().next());
+            }
+            log.warn("[cartesian-join] {} at {} : {} | sql={}", type, finding.getOrigin(), reason, sql);
+        }
+    }
+
+    //repository 패키지 프레임 우선, 없으면 첫번째 애플리케이션 코드 프레임
+    private static String origin() {
+        return StackWalker.getInstance().walk(frames -> {
+            List<StackWalker.StackFrame> appFrames = frames
+                    .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE) && !frame.getClassName().startsWith(OWN_PACKAGE))
+                    .collect(Collectors.toList());
+            return appFrames.stream()
+                    .filter(frame -> frame.getClassName().contains(".repository"))
+                    .findFirst()
+                    .or(() -> appFrames.stream().findFirst())
+                    .map(frame -> frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                    .orElse("unknown");
+        });
+    }
+
+    /**
+     * 드라이빙 테이블 추정 row 수 (H2 INFORMATION_SCHEMA), 조회 실패 시 -1
+     * p6spy 로 감싸지 않은 실제 커넥션을 사용하므로 이 조회는 다시 리스너로 들어오지 않는다.
+     */
+    private long rowEstimate(ResultSetInformation resultSetInformation, String table) {
+        long now = System.nanoTime();
+        TableEstimate cached = estimates.get(table);
+        if (cached != null && now - cached.loadedAt < ESTIMATE_TTL_NANOS) {
+            return cached.rows;
+        }
+
+        long rows = -1;
+        Connection connection = resultSetInformation.getConnectionInformation().getConnection();
+        try (PreparedStatement statement = connection.prepareStatement("select row_count_estimate from information_schema.tables " +
+                "where table_schema = schema() and table_name = ?")) {
+            statement.setString(1, table.toUpperCase(Locale.ROOT));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    rows = resultSet.getLong(1);
+                }
+            }
+        } catch (SQLException ex) {
+            log.debug("row estimate lookup failed for {}", table, ex);
+        }
+        estimates.put(table, new TableEstimate(rows, now));
+        return rows;
+    }
+
+    private static class TableEstimate {
+        private final long rows;
+        private final long loadedAt;
+
+        private TableEstimate(long rows, long loadedAt) {
+            this.rows = rows;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
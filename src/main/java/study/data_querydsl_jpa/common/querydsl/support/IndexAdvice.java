@@ -0,0 +1,40 @@
+package study.data_querydsl_jpa.common.querydsl.support;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * IndexAdvisor 인덱스 추천 항목
+ * 같은 (테이블, 컬럼) 을 추천한 SQL 모양들의 실행 횟수, 시간을 합산한다. (샘플링된 실행 기준)
+ */
+@Getter
+public class IndexAdvice {
+
+    private final String table;
+    private final List<String> columns;
+    private final String ddl;
+    private final String exampleSql;
+    private final String plan;
+    private int shapes;
+    private long executions;
+    private double totalMillis;
+
+    IndexAdvice(String table, List<String> columns, String exampleSql, String plan) {
+        this.table = table;
+        this.columns = List.copyOf(columns);
+        this.ddl = "create index idx_" + table + "_" + String.join("_", columns) + " on " + table + " (" + String.join(", ", columns) + ")";
+        this.exampleSql = exampleSql;
+        this.plan = plan;
+    }
+
+    void add(long executions, double totalMillis) {
+        this.shapes++;
+        this.executions += executions;
+        this.totalMillis += totalMillis;
+    }
+
+    public double getAvgMillis() {
+        return executions == 0 ? 0 : totalMillis / executions;
+    }
+}
@@ -0,0 +1,298 @@
+package study.data_querydsl_jpa.common.querydsl.support;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 실행된 SQL 의 where / order by 컬럼과 실행 시간을 모아서 인덱스를 추천한다. (P6Spy 이벤트 리스너)
+ * <p>
+ * 수집 (쿼리 실행마다, sampleRate 비율만)
+ * - prepared SQL(? 파라미터) 을 모양(shape) 키로 실행 횟수, 시간을 LongAdder 로 더한다. -> 파싱, DB 조회 없음
+ * - shape 별로 가장 느렸던 실행의 파라미터 값만 EXPLAIN 용 샘플로 남긴다. (onAfterPreparedStatementSet 으로 받은 값)
+ * - shape 은 maxShapes 개까지만 모은다. 가득 차면 총 실행시간이 가장 작은 shape 을 빼고 새 shape 을 넣는다. (뺀 횟수는 evictedShapes)
+ * 리포트 (/stats/index-advice 호출 시)
+ * - 평균 slowMs 이상인 shape 만 SQL 을 분석해서 테이블별 후보 컬럼을 뽑는다. (= / in 조건 -> 범위 조건 하나 -> order by 순서)
+ * - prepared SQL 에 샘플 파라미터를 그대로 바인딩해서 H2 EXPLAIN 을 실행하고, 그 테이블을 tableScan 하는 경우에만 추천한다. (이미 인덱스를 쓰면 제외)
+ *   P6Spy 의 getSqlWithValues 는 로그용으로 값을 문자열로 끼워 넣은 것이라 실행하지 않는다. -> 파라미터를 다시 바인딩할 수 없으면 EXPLAIN 없이 후보 컬럼만 추천
+ * - 같은 (테이블, 컬럼) 추천은 합산하고 총 실행시간 순으로 정렬한다.
+ * <p>
+ * P6Spy 포맷터(P6spySqlFormatConfiguration)는 SQL 로그를 끄면 호출되지 않기 때문에 CartesianJoinDetector 와 같이 이벤트 리스너를 사용한다.
+ */
+@Slf4j
+@Component
+public class IndexAdvisor extends SimpleJdbcEventListener {
+
+    private static final Pattern PREDICATE = Pattern.compile("\\b([a-z_][a-z0-9_]*)\\.([a-z_][a-z0-9_]*) ?(=|<>|!=|>=|<=|>|<|in |like |between |is )");
+    private static final Pattern COLUMN = Pattern.compile("\\b([a-z_][a-z0-9_]*)\\.([a-z_][a-z0-9_]*)");
+    private static final int MAX_INDEX_COLUMNS = 4;
+
+    private final ObjectProvider<DataSource> dataSource;
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowMillis;
+    private final int maxShapes;
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final LongAdder evictedShapes = new LongAdder();
+    //실행 중인 statement 에 바인딩된 값 (스레드마다 마지막 statement 하나만)
+    private final ThreadLocal<BoundParameters> boundParameters = ThreadLocal.withInitial(BoundParameters::new);
+
+    //DataSource 는 이 리스너를 포함해서 만들어지므로 바로 주입하면 순환 참조 -> 리포트 시점에 꺼낸다.
+    public IndexAdvisor(ObjectProvider<DataSource> dataSource,
+                        @Value("${sql-guard.index-advisor.enabled:true}") boolean enabled,
+                        @Value("${sql-guard.index-advisor.sample-rate:0.1}") double sampleRate,
+                        @Value("${sql-guard.index-advisor.slow-ms:20}") long slowMillis,
+                        @Value("${sql-guard.index-advisor.max-shapes:500}") int maxShapes) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowMillis = slowMillis;
+        this.maxShapes = maxShapes;
+    }
+
+    @Override
+    public void onAfterPreparedStatementSet(PreparedStatementInformation statementInformation, int parameterIndex, Object value, SQLException e) {
+        if (enabled && e == null) {
+            boundParameters.get().set(statementInformation, parameterIndex, value);
+        }
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (!enabled || e != null) {
+            return;
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        String sql = statementInformation.getSql();
+        if (sql == null || !isSelect(sql)) {
+            return;
+        }
+
+        ShapeStats stats = shapes.get(sql);
+        if (stats == null) {
+            if (shapes.size() >= maxShapes) {
+                evictLeastTotal();
+            }
+            stats = shapes.computeIfAbsent(sql, key -> new ShapeStats());
+        }
+        stats.record(timeElapsedNanos, boundParameters.get(), statementInformation);
+    }
+
+    /**
+     * 인덱스 추천 목록 (총 실행시간 순)
+     */
+    public List<IndexAdvice> report() {
+        Map<String, IndexAdvice> advices = new LinkedHashMap<>();
+        for (Map.Entry<String, ShapeStats> entry : shapes.entrySet()) {
+            ShapeStats stats = entry.getValue();
+            long executions = stats.executions.sum();
+            double totalMillis = stats.totalNanos.sum() / 1_000_000.0;
+            if (executions == 0 || totalMillis / executions < slowMillis) {
+                continue;
+            }
+
+            Map<String, List<String>> candidates = candidateColumns(entry.getKey());
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            String plan = explain(entry.getKey(), stats.sampleParameters);
+            for (Map.Entry<String, List<String>> candidate : candidates.entrySet()) {
+                String table = candidate.getKey();
+                if (plan != null && !plan.contains("." + table.toUpperCase(Locale.ROOT) + ".TABLESCAN")) {
+                    continue;
+                }
+                advices.computeIfAbsent(table + ":" + candidate.getValue(),
+                                key -> new IndexAdvice(table, candidate.getValue(), entry.getKey(), plan))
+                        .add(executions, totalMillis);
+            }
+        }
+
+        List<IndexAdvice> result = new ArrayList<>(advices.values());
+        result.sort(Comparator.comparingDouble(IndexAdvice::getTotalMillis).reversed());
+        return result;
+    }
+
+    public void reset() {
+        shapes.clear();
+        evictedShapes.reset();
+    }
+
+    public int shapeCount() {
+        return shapes.size();
+    }
+
+    public long evictedShapes() {
+        return evictedShapes.sum();
+    }
+
+    Set<String> shapeKeys() {
+        return Set.copyOf(shapes.keySet());
+    }
+
+    Object[] sampleParameters(String sql) {
+        ShapeStats stats = shapes.get(sql);
+        return stats == null ? null : stats.sampleParameters;
+    }
+
+    //새 shape 이 들어올 자리 - 총 실행시간이 가장 작은(인덱스 추천 가치가 가장 낮은) shape 을 뺀다.
+    //가득 찬 뒤 새 shape 이 들어올 때만 호출되므로 전체를 훑어도 된다. (동시에 들어오면 한번만 빼도록 synchronized)
+    private synchronized void evictLeastTotal() {
+        if (shapes.size() < maxShapes) {
+            return;
+        }
+        shapes.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue().totalNanos.sum()))
+                .ifPresent(entry -> {
+                    if (shapes.remove(entry.getKey(), entry.getValue())) {
+                        evictedShapes.increment();
+                    }
+                });
+    }
+
+    /**
+     * 테이블별 인덱스 후보 컬럼 : = / in / is 조건 컬럼 -> 범위 조건 컬럼 하나 -> order by 컬럼
+     */
+    static Map<String, List<String>> candidateColumns(String sql) {
+        SqlShape shape = SqlShape.parse(sql);
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        if (shape == null) {
+            return result;
+        }
+
+        Map<String, List<String>> equals = new LinkedHashMap<>();
+        Map<String, List<String>> ranges = new LinkedHashMap<>();
+        Matcher predicate = PREDICATE.matcher(shape.getWhere());
+        while (predicate.find()) {
+            String table = shape.getAliases().get(predicate.group(1));
+            if (table == null) {
+                continue;
+            }
+            String operator = predicate.group(3).trim();
+            boolean equality = operator.equals("=") || operator.equals("in") || operator.equals("is");
+            (equality ? equals : ranges).computeIfAbsent(table, key -> new ArrayList<>()).add(predicate.group(2));
+        }
+
+        for (String table : shape.getTables()) {
+            List<String> columns = new ArrayList<>();
+            equals.getOrDefault(table, List.of()).forEach(column -> addColumn(columns, column));
+            ranges.getOrDefault(table, List.of()).stream().findFirst().ifPresent(column -> addColumn(columns, column));
+            if (!columns.isEmpty()) {
+                Matcher orderBy = COLUMN.matcher(shape.getOrderBy());
+                while (orderBy.find()) {
+                    if (table.equals(shape.getAliases().get(orderBy.group(1)))) {
+                        addColumn(columns, orderBy.group(2));
+                    }
+                }
+                result.put(table, columns.subList(0, Math.min(columns.size(), MAX_INDEX_COLUMNS)));
+            }
+        }
+        return result;
+    }
+
+    private static void addColumn(List<String> columns, String column) {
+        if (!columns.contains(column)) {
+            columns.add(column);
+        }
+    }
+
+    private static boolean isSelect(String sql) {
+        int start = 0;
+        while (start < sql.length() && Character.isWhitespace(sql.charAt(start))) {
+            start++;
+        }
+        return sql.regionMatches(true, start, "select", 0, "select".length());
+    }
+
+    //샘플 파라미터가 없거나 EXPLAIN 이 실패하면 null -> 실행 계획 확인 없이 후보 컬럼만 추천한다.
+    private String explain(String sql, Object[] parameters) {
+        if (parameters == null) {
+            return null;
+        }
+        try (Connection connection = dataSource.getObject().getConnection();
+             PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1).toUpperCase(Locale.ROOT) : null;
+            }
+        } catch (SQLException e) {
+            log.debug("explain failed: {}", sql, e);
+            return null;
+        }
+    }
+
+    private static class ShapeStats {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong sampleNanos = new AtomicLong(-1);
+        private volatile Object[] sampleParameters;
+
+        //가장 느린 실행의 파라미터 값만 복사해서 남긴다.
+        private void record(long nanos, BoundParameters bound, StatementInformation statementInformation) {
+            executions.increment();
+            totalNanos.add(nanos);
+            long current = sampleNanos.get();
+            if (nanos > current && sampleNanos.compareAndSet(current, nanos)) {
+                sampleParameters = bound.copyOf(statementInformation);
+            }
+        }
+    }
+
+    /**
+     * statement 에 바인딩된 값 (index 1 부터)
+     * 다른 statement 의 값이 들어오면 새로 모은다. 값은 복사하지 않고 참조만 둔다. (샘플로 남길 때만 복사)
+     */
+    private static class BoundParameters {
+        private StatementInformation statement;
+        private Object[] values = new Object[16];
+        private int count;
+
+        private void set(StatementInformation statementInformation, int parameterIndex, Object value) {
+            if (statement != statementInformation) {
+                statement = statementInformation;
+                Arrays.fill(values, 0, count, null);
+                count = 0;
+            }
+            if (parameterIndex > values.length) {
+                values = Arrays.copyOf(values, Math.max(parameterIndex, values.length * 2));
+            }
+            values[parameterIndex - 1] = value;
+            count = Math.max(count, parameterIndex);
+        }
+
+        //바인딩한 값이 없으면 파라미터(?) 없는 SQL 만 그대로 EXPLAIN 할 수 있다. (빈 배열) 그 외에는 다시 바인딩할 수 없으므로 null
+        private Object[] copyOf(StatementInformation statementInformation) {
+            if (statement == statementInformation) {
+                return Arrays.copyOf(values, count);
+            }
+            return statementInformation.getSql().indexOf('?') < 0 ? new Object[0] : null;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package study.data_querydsl_jpa.common.querydsl.support;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * CartesianJoinDetector 감지 결과 (불변 - 다시 감지되면 occurred() 로 만든 새 객체로 교체한다)
+ */
+@Getter
+public class JoinFinding {
+
+    public enum Type {
+        MISSING_JOIN_CONDITION,
+        ROW_EXPLOSION
+    }
+
+    private final Type type;
+    private final String sql;
+    private final String reason;
+    private final String origin;
+    private final long tableEstimate;
+    private final LocalDateTime firstDetectedAt;
+    private final long maxRows;
+    private final long occurrences;
+    private final LocalDateTime lastDetectedAt;
+
+    JoinFinding(Type type, String sql, String reason, String origin, long rows, long tableEstimate) {
+        this(type, sql, reason, origin, tableEstimate, LocalDateTime.now(), rows, 1, null);
+    }
+
+    private JoinFinding(Type type, String sql, String reason, String origin, long tableEstimate,
+                        LocalDateTime firstDetectedAt, long maxRows, long occurrences, LocalDateTime lastDetectedAt) {
+        this.type = type;
+        this.sql = sql;
+        this.reason = reason;
+        this.origin = origin;
+        this.tableEstimate = tableEstimate;
+        this.firstDetectedAt = firstDetectedAt;
+        this.maxRows = maxRows;
+        this.occurrences = occurrences;
+        this.lastDetectedAt = lastDetectedAt == null ? firstDetectedAt : lastDetectedAt;
+    }
+
+    //값을 바꾸지 않고 새 객체를 만든다. -> findings() 로 내보낸 객체는 lock 밖에서 읽어도(JSON 직렬화) 안전하다.
+    JoinFinding occurred(long rows) {
+        return new JoinFinding(type, sql, reason, origin, tableEstimate, firstDetectedAt,
+                Math.max(maxRows, rows), occurrences + 1, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,195 @@
+package study.data_querydsl_jpa.common.querydsl.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * select 문의 최상위 from / where / order by 절 (괄호 안 서브쿼리, 함수 인자 제외)
+ * tables  : from 절 테이블 (첫번째가 드라이빙 테이블)
+ * joins   : 두번째 테이블부터 (콤마 조인은 조건 없는 join 으로 취급)
+ * aliases : 별칭 -> 테이블
+ * SQL 파서가 아니라 하이버네이트 / 네이티브 쿼리 정도를 대상으로 하는 단순한 문자열 분석이다.
+ */
+class SqlShape {
+
+    private static final Pattern JOIN = Pattern.compile("\\b((?:natural |cross |inner |(?:left|right|full)(?: outer)? )?join) ");
+    private static final Pattern CLAUSE = Pattern.compile(" (where|group by|having|order by|limit|offset|fetch|for update|union)\\b");
+
+    private final List<String> tables = new ArrayList<>();
+    private final List<JoinPart> joins = new ArrayList<>();
+    private final Map<String, String> aliases = new LinkedHashMap<>();
+    private String where = "";
+    private String orderBy = "";
+
+    List<String> getTables() {
+        return Collections.unmodifiableList(tables);
+    }
+
+    List<JoinPart> getJoins() {
+        return Collections.unmodifiableList(joins);
+    }
+
+    Map<String, String> getAliases() {
+        return Collections.unmodifiableMap(aliases);
+    }
+
+    String getWhere() {
+        return where;
+    }
+
+    String getOrderBy() {
+        return orderBy;
+    }
+
+    /**
+     * select 문이 아니면 null
+     */
+    static SqlShape parse(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        String normalized = topLevel(sql.toLowerCase(Locale.ROOT)).replaceAll("\\s+", " ").trim();
+        if (!normalized.startsWith("select ")) {
+            return null;
+        }
+        int from = normalized.indexOf(" from ");
+        if (from < 0) {
+            return null;
+        }
+        String rest = normalized.substring(from + " from ".length());
+        SqlShape shape = new SqlShape();
+
+        //from 절 이후를 where, order by 등 절 단위로 나눈다.
+        Matcher clause = CLAUSE.matcher(rest);
+        String fromClause = rest;
+        String currentClause = null;
+        int currentStart = 0;
+        while (clause.find()) {
+            if (currentClause == null) {
+                fromClause = rest.substring(0, clause.start());
+            } else {
+                shape.assign(currentClause, rest.substring(currentStart, clause.start()));
+            }
+            currentClause = clause.group(1);
+            currentStart = clause.end();
+        }
+        if (currentClause != null) {
+            shape.assign(currentClause, rest.substring(currentStart));
+        }
+
+        shape.parseFrom(fromClause);
+        return shape;
+    }
+
+    private void assign(String clause, String text) {
+        if (clause.equals("where")) {
+            where = text.trim();
+        } else if (clause.equals("order by")) {
+            orderBy = text.trim();
+        }
+    }
+
+    private void parseFrom(String fromClause) {
+        Matcher join = JOIN.matcher(fromClause);
+        List<int[]> joinPositions = new ArrayList<>();
+        List<String> keywords = new ArrayList<>();
+        while (join.find()) {
+            joinPositions.add(new int[]{join.start(), join.end()});
+            keywords.add(join.group(1));
+        }
+
+        String first = joinPositions.isEmpty() ? fromClause : fromClause.substring(0, joinPositions.get(0)[0]);
+        String[] commaTables = first.split(",");
+        for (int i = 0; i < commaTables.length; i++) {
+            String[] tokens = tableTokens(commaTables[i]);
+            if (tokens == null) {
+                continue;
+            }
+            addTable(tokens);
+            if (i > 0) {
+                joins.add(new JoinPart(",", tokens[0], tokens[1], false));
+            }
+        }
+
+        for (int i = 0; i < joinPositions.size(); i++) {
+            int segmentEnd = i + 1 < joinPositions.size() ? joinPositions.get(i + 1)[0] : fromClause.length();
+            String segment = fromClause.substring(joinPositions.get(i)[1], segmentEnd);
+            String[] tokens = tableTokens(segment);
+            if (tokens == null) {
+                continue;
+            }
+            addTable(tokens);
+            boolean hasCondition = segment.contains(" on ") || segment.contains(" using ") || keywords.get(i).startsWith("natural");
+            joins.add(new JoinPart(keywords.get(i), tokens[0], tokens[1], hasCondition));
+        }
+    }
+
+    private void addTable(String[] tokens) {
+        tables.add(tokens[0]);
+        aliases.put(tokens[1], tokens[0]);
+    }
+
+    //"team t on ..." -> [team, t], 별칭이 없으면 테이블 이름을 별칭으로 쓴다.
+    private static String[] tableTokens(String segment) {
+        String[] tokens = segment.trim().split(" ");
+        if (tokens.length == 0 || tokens[0].isEmpty()) {
+            return null;
+        }
+        int aliasIndex = tokens.length > 2 && tokens[1].equals("as") ? 2 : 1;
+        String alias = tokens.length > aliasIndex && !tokens[aliasIndex].equals("on") && !tokens[aliasIndex].equals("using")
+                ? tokens[aliasIndex] : tokens[0];
+        return new String[]{tokens[0], alias};
+    }
+
+    //괄호 안(서브쿼리, 함수 인자)을 지운다.
+    private static String topLevel(String sql) {
+        StringBuilder result = new StringBuilder(sql.length());
+        int depth = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth = Math.max(0, depth - 1);
+            } else if (depth == 0) {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    static class JoinPart {
+        private final String keyword;
+        private final String table;
+        private final String alias;
+        private final boolean hasCondition;
+
+        private JoinPart(String keyword, String table, String alias, boolean hasCondition) {
+            this.keyword = keyword;
+            this.table = table;
+            this.alias = alias;
+            this.hasCondition = hasCondition;
+        }
+
+        String getKeyword() {
+            return keyword;
+        }
+
+        String getTable() {
+            return table;
+        }
+
+        String getAlias() {
+            return alias;
+        }
+
+        boolean hasCondition() {
+            return hasCondition;
+        }
+    }
+}
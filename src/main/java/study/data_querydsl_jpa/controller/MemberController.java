@@ -4,25 +4,44 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import study.data_querydsl_jpa.common.BadRequestException;
+import study.data_querydsl_jpa.dto.CursorPage;
+import study.data_querydsl_jpa.dto.MemberCursor;
 import study.data_querydsl_jpa.dto.MemberDto;
+import study.data_querydsl_jpa.dto.MemberImportResult;
 import study.data_querydsl_jpa.dto.MemberSearchCondition;
 import study.data_querydsl_jpa.dto.MemberTeamDto;
 import study.data_querydsl_jpa.entity.Member;
 import study.data_querydsl_jpa.repository.MemberRepository;
+import study.data_querydsl_jpa.repository_querydsl.MemberField;
 import study.data_querydsl_jpa.repository_querydsl.MemberQuerydslJpaRepository;
 import study.data_querydsl_jpa.repository_querydsl.MemberQuerydslRepository;
 import study.data_querydsl_jpa.repository_querydsl.MemberTestRepositoryBySupport;
+import study.data_querydsl_jpa.repository_querydsl.support.CountMode;
+import study.data_querydsl_jpa.repository_querydsl.support.PagingStrategy;
+import study.data_querydsl_jpa.service.MemberExportService;
+import study.data_querydsl_jpa.service.MemberImportService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_IDS = 2000;
+
     private final MemberRepository memberRepository;
 
     private final MemberTestRepositoryBySupport memberTestRepositoryBySupport;
@@ -36,21 +55,106 @@ public class MemberController {
 
     private final MemberQuerydslRepository memberQuerydslRepository;
 
+    private final MemberExportService memberExportService;
+
+    private final MemberImportService memberImportService;
+
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
         return memberQuerydslJpaRepository.searchByBuilder(condition);
     }
 
+    /**
+     * 필요한 컬럼만 조회 - team 컬럼이 없으면 team 조인도 하지 않는다.
+     * http://localhost:8080/v1/members?fields=memberId,username&ageGoe=20
+     */
+    @GetMapping(value = "/v1/members", params = "fields")
+    public List<Map<String, Object>> searchMemberV1Fields(MemberSearchCondition condition, @RequestParam String fields) {
+        return memberQuerydslRepository.searchFields(condition, MemberField.parse(fields));
+    }
+
+    /**
+     * v1 과 같은 검색이지만 List 로 모아서 반환하지 않고 NDJSON 으로 한 row 씩 흘려 보낸다.
+     * http://localhost:8080/v1/members/stream?teamName=teamA
+     */
+    @GetMapping(value = "/v1/members/stream", produces = "application/x-ndjson")
+    public void streamMemberV1(MemberSearchCondition condition, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        memberExportService.writeNdjson(condition, response.getOutputStream());
+    }
+
+    /**
+     * 전체 회원 + 팀 이름 CSV 다운로드 (row 수와 상관없이 일정한 메모리로 내려준다)
+     * http://localhost:8080/members/export
+     */
+    @GetMapping(value = "/members/export", produces = "text/csv")
+    public void exportMembers(HttpServletResponse response) throws IOException {
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Content-Disposition", "attachment; filename=\"members.csv\"");
+        memberExportService.writeCsv(response.getOutputStream());
+    }
+
+    /**
+     * 회원 대량 등록 - 본문은 CSV (username,age,team_name) 한 줄에 회원 하나, 첫 줄 헤더는 생략 가능
+     * curl -X POST -H 'Content-Type: text/csv' --data-binary @members.csv http://localhost:8080/members/bulk
+     */
+    @PostMapping(value = "/members/bulk", consumes = {"text/csv", "text/plain"})
+    public MemberImportResult importMembers(HttpServletRequest request) throws IOException {
+        return memberImportService.importCsv(request.getInputStream());
+    }
+
     @GetMapping("/v2/members")
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
         return memberQuerydslRepository.searchPageSimple(condition, pageable);
     }
 
+    /**
+     * parallelCount=true 이면 content, count 쿼리를 동시에 실행한다.
+     * countMode=ESTIMATED 이면 데이터가 많을 때 total 을 DB 통계로 추정한다. (응답의 totalEstimated 로 구분)
+     * denormalized=true 이면 member.team_name 컬럼으로 team 조인 없이 검색한다.
+     * 세 옵션은 서로 다른 검색 방식이라 하나만 지정할 수 있다. (둘 이상이면 400)
+     */
     @GetMapping("/v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+                                              @RequestParam(defaultValue = "false") boolean parallelCount,
+                                              @RequestParam(defaultValue = "EXACT") CountMode countMode,
+                                              @RequestParam(defaultValue = "false") boolean denormalized) {
+        int options = (parallelCount ? 1 : 0) + (countMode == CountMode.ESTIMATED ? 1 : 0) + (denormalized ? 1 : 0);
+        if (options > 1) {
+            throw new BadRequestException("parallelCount, countMode=ESTIMATED, denormalized 는 함께 사용할 수 없습니다.");
+        }
+        if (denormalized) {
+            return memberQuerydslRepository.searchPageDenormalized(condition, pageable);
+        }
+        if (countMode == CountMode.ESTIMATED) {
+            return memberQuerydslRepository.searchPageComplex(condition, pageable, countMode);
+        }
+        if (parallelCount) {
+            return memberQuerydslRepository.searchPageComplexParallel(condition, pageable);
+        }
         return memberQuerydslRepository.searchPageComplex(condition, pageable);
     }
 
+    /**
+     * v3 + 필요한 컬럼만 조회
+     * http://localhost:8080/v3/members?fields=username,teamName&page=1&size=10
+     */
+    @GetMapping(value = "/v3/members", params = "fields")
+    public Page<Map<String, Object>> searchMemberV3Fields(MemberSearchCondition condition, Pageable pageable,
+                                                          @RequestParam String fields) {
+        return memberQuerydslRepository.searchPageFields(condition, MemberField.parse(fields), pageable);
+    }
+
+    /**
+     * 무한 스크롤용 - count 쿼리 없이 다음 페이지 존재 여부(hasNext)만 내려준다.
+     */
+    @GetMapping("/v3/members/slice")
+    public Slice<MemberTeamDto> searchMemberV3Slice(MemberSearchCondition condition, Pageable pageable) {
+        return memberQuerydslRepository.searchSlice(condition, pageable);
+    }
+
     @GetMapping("/v4/members")
     public Page<MemberTeamDto> searchMemberV4(MemberSearchCondition condition, Pageable pageable) {
         return memberQuerydslRepository.searchPageComplexImproved(condition, pageable);
@@ -61,9 +165,45 @@ public class MemberController {
         return memberTestRepositoryBySupport.applyPagination(condition, pageable);
     }
 
+    /**
+     * strategy=DEFERRED_JOIN 이면 id 만 먼저 페이징 후 해당 id 의 컬럼을 조회한다.
+     */
     @GetMapping("/v6/members")
-    public Page<MemberTeamDto> searchMemberV6ByCustomSupportImproved(MemberSearchCondition condition, Pageable pageable) {
-        return memberTestRepositoryBySupport.applyPaginationImproved(condition, pageable);
+    public Page<MemberTeamDto> searchMemberV6ByCustomSupportImproved(MemberSearchCondition condition, Pageable pageable,
+                                                                     @RequestParam(defaultValue = "OFFSET") PagingStrategy strategy) {
+        return memberTestRepositoryBySupport.applyPaginationImproved(condition, pageable, strategy);
+    }
+
+    @GetMapping("/v6/members/slice")
+    public Slice<MemberTeamDto> searchMemberV6Slice(MemberSearchCondition condition, Pageable pageable) {
+        return memberTestRepositoryBySupport.applySlice(condition, pageable);
+    }
+
+    @GetMapping("/v6/members/parallel")
+    public Page<MemberTeamDto> searchMemberV6ByParallelCount(MemberSearchCondition condition, Pageable pageable) {
+        return memberTestRepositoryBySupport.applyPaginationParallel(condition, pageable);
+    }
+
+    /**
+     * 커서 페이징 - 첫 페이지는 cursor 없이 호출하고, 이후에는 응답의 nextCursor / prevCursor 를 넘긴다.
+     * size 는 최대 2000 (넘으면 2000 으로 조회), size 가 1 보다 작거나 cursor 형식이 잘못되면 400
+     * http://localhost:8080/v7/members?size=10&sort=USERNAME
+     */
+    @GetMapping("/v7/members")
+    public CursorPage<MemberTeamDto> searchMemberV7ByCursor(MemberSearchCondition condition,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "10") int size,
+                                                           @RequestParam(defaultValue = "ID") MemberCursor.SortKey sort) {
+        return memberQuerydslRepository.searchByCursor(condition, sort, cursor, size);
+    }
+
+    /**
+     * 컨텐츠 + 전체 카운트를 쿼리 한번으로 조회 (count(*) over())
+     * http://localhost:8080/v8/members?page=1&size=10&sort=age,desc
+     */
+    @GetMapping("/v8/members")
+    public Page<MemberTeamDto> searchMemberV8WithWindowTotal(MemberSearchCondition condition, Pageable pageable) {
+        return memberQuerydslRepository.searchPageWithTotal(condition, pageable);
     }
 
 
@@ -95,6 +235,20 @@ public class MemberController {
         return member.getUsername();
     }
 
+    /**
+     * 여러 회원 한번에 조회 - /members/{id} 를 반복 호출하지 않고 한번의 요청, 몇 번의 IN 쿼리로 조회한다.
+     * http://localhost:8080/members?ids=3,1,2
+     * 요청한 id 순서대로 반환, 중복 id 는 한번만, 없는 id 는 제외
+     * 한번에 MAX_IDS(페이징 max-page-size 와 같은 2000) 개까지, 넘으면 400
+     */
+    @GetMapping(value = "/members", params = "ids")
+    public List<MemberDto> findMembers(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_IDS) {
+            throw new BadRequestException("ids 는 " + MAX_IDS + " 개까지 조회할 수 있습니다. size=" + ids.size());
+        }
+        return memberRepository.findDtosByIds(ids);
+    }
+
     /**
      * page, size, sort
      * http://localhost:8080/members?page=1&size=3&sort=id,desc&sort=username,desc
@@ -0,0 +1,92 @@
+package study.data_querydsl_jpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.data_querydsl_jpa.common.querydsl.support.CartesianJoinDetector;
+import study.data_querydsl_jpa.common.querydsl.support.IndexAdvice;
+import study.data_querydsl_jpa.common.querydsl.support.IndexAdvisor;
+import study.data_querydsl_jpa.common.querydsl.support.JoinFinding;
+import study.data_querydsl_jpa.repository_querydsl.support.CountCache;
+import study.data_querydsl_jpa.repository_querydsl.support.PagingMetrics;
+import study.data_querydsl_jpa.repository_querydsl.support.ParallelChunkExecutor;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 성능 관련 지표 확인용
+ */
+@RestController
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final PagingMetrics pagingMetrics;
+    private final CountCache countCache;
+    private final ParallelChunkExecutor parallelChunkExecutor;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CartesianJoinDetector cartesianJoinDetector;
+    private final IndexAdvisor indexAdvisor;
+
+    @GetMapping("/stats/paging")
+    public Map<String, Object> paging() {
+        return pagingMetrics.snapshot();
+    }
+
+    /**
+     * IN 절 chunk 동시 조회 (InLists.fetchChunkedParallel)
+     */
+    @GetMapping("/stats/in-list")
+    public Map<String, Object> inList() {
+        return parallelChunkExecutor.snapshot();
+    }
+
+    @GetMapping("/stats/count-cache")
+    public Map<String, Object> countCache() {
+        return countCache.snapshot();
+    }
+
+    /**
+     * 하이버네이트 쿼리 플랜 캐시 적중률 (InLists 패딩 효과 확인용)
+     * 적중/미스는 하이버네이트 통계로만 집계되므로 hibernate.generate_statistics=true 가 필요하다. (application.yml 에서 켜 둔다)
+     */
+    @GetMapping("/stats/query-plan-cache")
+    public Map<String, Object> queryPlanCache() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long misses = statistics.getQueryPlanCacheMissCount();
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", statistics.isStatisticsEnabled());
+        snapshot.put("hits", hits);
+        snapshot.put("misses", misses);
+        snapshot.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return snapshot;
+    }
+
+    /**
+     * 조인 조건 누락 / row 폭증 쿼리 (최근 것부터)
+     */
+    @GetMapping("/stats/cartesian-joins")
+    public List<JoinFinding> cartesianJoins() {
+        return cartesianJoinDetector.findings();
+    }
+
+    /**
+     * 느린 SQL 의 where / order by 컬럼 기반 인덱스 추천 (총 실행시간 순)
+     * evictedShapes 가 계속 늘어나면 sql-guard.index-advisor.max-shapes 가 부족한 것이다.
+     */
+    @GetMapping("/stats/index-advice")
+    public Map<String, Object> indexAdvice() {
+        List<IndexAdvice> advice = indexAdvisor.report();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("shapes", indexAdvisor.shapeCount());
+        snapshot.put("evictedShapes", indexAdvisor.evictedShapes());
+        snapshot.put("advice", advice);
+        return snapshot;
+    }
+}
@@ -0,0 +1,21 @@
+package study.data_querydsl_jpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.data_querydsl_jpa.dto.TeamStatsDto;
+import study.data_querydsl_jpa.repository.TeamRepository;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamRepository teamRepository;
+
+    @GetMapping("/teams/stats")
+    public List<TeamStatsDto> teamStats() {
+        return teamRepository.findTeamStats();
+    }
+}
@@ -0,0 +1,30 @@
+package study.data_querydsl_jpa.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 커서(keyset) 기반 페이지 결과
+ * offset 이 없기 때문에 totalCount, 페이지 번호는 제공하지 않는다.
+ * 다음/이전 페이지는 응답으로 내려준 cursor 값을 그대로 다시 넘겨서 조회한다.
+ */
+@Getter
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final boolean hasPrevious;
+    private final String nextCursor;
+    private final String prevCursor;
+
+    public CursorPage(List<T> content, int size, String prevCursor, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.prevCursor = prevCursor;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+        this.hasPrevious = prevCursor != null;
+    }
+}
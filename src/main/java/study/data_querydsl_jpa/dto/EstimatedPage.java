@@ -0,0 +1,24 @@
+package study.data_querydsl_jpa.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * total count 가 정확한 값이 아닐 수 있는 페이지
+ * totalEstimated = true 이면 totalElements, totalPages 는 DB 통계 기반 추정치이다.
+ */
+public class EstimatedPage<T> extends PageImpl<T> {
+
+    private final boolean totalEstimated;
+
+    public EstimatedPage(List<T> content, Pageable pageable, long total, boolean totalEstimated) {
+        super(content, pageable, total);
+        this.totalEstimated = totalEstimated;
+    }
+
+    public boolean isTotalEstimated() {
+        return totalEstimated;
+    }
+}
@@ -0,0 +1,17 @@
+package study.data_querydsl_jpa.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * ItemRepository.insertAll 결과 - 이미 있는 id 는 실패시키지 않고 모아서 돌려준다.
+ */
+@Data
+public class ItemInsertResult {
+
+    private int inserted;
+    private List<UUID> duplicateIds = new ArrayList<>();
+}
@@ -0,0 +1,88 @@
+package study.data_querydsl_jpa.dto;
+
+import lombok.Getter;
+import study.data_querydsl_jpa.common.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 회원 검색용 커서
+ * (정렬키, member_id) 의 마지막 값을 담아두고, 다음 조회시 해당 값 이후(또는 이전)부터 seek 한다.
+ * 클라이언트에게는 Base64(url safe) 로 인코딩된 불투명(opaque) 문자열로만 노출한다.
+ * -> "정렬키:방향:member_id:정렬값" 형식, 정렬값에 ':' 가 들어가도 되도록 마지막에 둔다.
+ */
+@Getter
+public class MemberCursor {
+
+    public enum SortKey {ID, USERNAME, AGE}
+
+    public enum Direction {NEXT, PREV}
+
+    private final SortKey sortKey;
+    private final Direction direction;
+    private final Long memberId;
+    private final String value;
+
+    private MemberCursor(SortKey sortKey, Direction direction, Long memberId, String value) {
+        this.sortKey = sortKey;
+        this.direction = direction;
+        this.memberId = memberId;
+        this.value = value;
+    }
+
+    public static MemberCursor of(SortKey sortKey, Direction direction, MemberTeamDto row) {
+        return new MemberCursor(sortKey, direction, row.getMemberId(), sortValue(sortKey, row));
+    }
+
+    /**
+     * 클라이언트가 보낸 cursor 를 해석한다. 형식이 맞지 않으면 400 (BadRequestException)
+     */
+    public static MemberCursor decode(String cursor) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("잘못된 cursor 입니다. cursor=" + cursor, e);
+        }
+
+        String[] parts = decoded.split(":", 4);
+        if (parts.length != 4) {
+            throw new BadRequestException("잘못된 cursor 입니다. cursor=" + cursor);
+        }
+        try {
+            SortKey sortKey = SortKey.valueOf(parts[0]);
+            if (sortKey == SortKey.AGE) {
+                //seek 할 때 숫자로 비교하므로 미리 확인
+                Integer.parseInt(parts[3]);
+            }
+            return new MemberCursor(
+                    sortKey,
+                    Direction.valueOf(parts[1]),
+                    Long.valueOf(parts[2]),
+                    parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("잘못된 cursor 입니다. cursor=" + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String raw = sortKey + ":" + direction + ":" + memberId + ":" + (value == null ? "" : value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isBackward() {
+        return direction == Direction.PREV;
+    }
+
+    private static String sortValue(SortKey sortKey, MemberTeamDto row) {
+        switch (sortKey) {
+            case USERNAME:
+                return row.getUsername();
+            case AGE:
+                return String.valueOf(row.getAge());
+            default:
+                return null;
+        }
+    }
+}
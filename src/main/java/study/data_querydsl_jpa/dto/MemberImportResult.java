@@ -0,0 +1,44 @@
+package study.data_querydsl_jpa.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * POST /members/bulk 결과
+ * imported 는 커밋된 줄 수, aborted 이면 rolledBack 줄이 롤백되고 그 뒤 줄은 처리하지 않았다. (MemberImportService 참고)
+ */
+@Data
+public class MemberImportResult {
+
+    public static final int MAX_ERRORS = 100;
+
+    private long imported;
+    private long skipped;
+    private long rolledBack;
+    private boolean aborted;
+    private int teamsCreated;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    //잘못된 줄은 건너뛰고 앞의 MAX_ERRORS 건만 남긴다. (line 번호: 메세지)
+    private List<String> errors = new ArrayList<>();
+
+    public void skip(long line, String message) {
+        skipped++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(line + ": " + message);
+        }
+    }
+
+    public void abort(long fromLine, long toLine, int rows, String message) {
+        aborted = true;
+        rolledBack += rows;
+        errors.add(fromLine + "-" + toLine + ": rolled back, import stopped: " + message);
+    }
+
+    public void finish(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+    }
+}
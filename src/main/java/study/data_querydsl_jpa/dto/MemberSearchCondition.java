@@ -2,6 +2,8 @@ package study.data_querydsl_jpa.dto;
 
 import lombok.Data;
 
+import static org.springframework.util.StringUtils.hasText;
+
 @Data
 public class MemberSearchCondition {
     //회원명, 팀명, 나이(ageGoe, ageLoe)
@@ -10,4 +12,16 @@ public class MemberSearchCondition {
     private String teamName;
     private Integer ageGoe; //크거나 같거나
     private Integer ageLoe; //직가니 깉가니
+
+    /**
+     * count 캐시 key 용 복사본 - 빈 문자열은 조건 없음(null) 과 같게 취급한다.
+     */
+    public MemberSearchCondition normalize() {
+        MemberSearchCondition normalized = new MemberSearchCondition();
+        normalized.setUsername(hasText(username) ? username : null);
+        normalized.setTeamName(hasText(teamName) ? teamName : null);
+        normalized.setAgeGoe(ageGoe);
+        normalized.setAgeLoe(ageLoe);
+        return normalized;
+    }
 }
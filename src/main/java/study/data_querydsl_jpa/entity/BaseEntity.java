@@ -8,16 +8,19 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
+import java.util.UUID;
 
 @EntityListeners(AuditingEntityListener.class)
 @MappedSuperclass
 @Getter
 public class BaseEntity extends BaseTimeEntity {
 
+    //36자 문자열 대신 16바이트 uuid 컬럼 (AuditorAware<UUID>)
     @CreatedBy
-    @Column(updatable = false)
-    private String createdBy;
+    @Column(updatable = false, columnDefinition = "uuid")
+    private UUID createdBy;
 
     @LastModifiedBy
-    private String lastModifiedBy;
+    @Column(columnDefinition = "uuid")
+    private UUID lastModifiedBy;
 }
@@ -5,33 +5,42 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.domain.Persistable;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import study.data_querydsl_jpa.common.id.TimeOrderedUuid;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
 import javax.persistence.Id;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
 @EntityListeners(AuditingEntityListener.class)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-public class Item implements Persistable<String> {
+public class Item implements Persistable<UUID> {
 //    @Id
 //    @GeneratedValue
 //    private Long id;
 
+    //문자열 id 대신 시간 순서 uuid (16바이트) -> pk 인덱스에 항상 뒤쪽으로 들어간다.
     @Id
-    private String id;
+    @Column(columnDefinition = "uuid")
+    private UUID id;
 
     @CreatedDate
     private LocalDateTime createdDate;
 
-    public Item(String id) {
+    public Item(UUID id) {
         this.id = id;
     }
 
+    public static Item create() {
+        return new Item(TimeOrderedUuid.next());
+    }
+
     @Override
-    public String getId() {
-        return null;
+    public UUID getId() {
+        return id;
     }
 
     @Override
@@ -39,5 +48,3 @@ public class Item implements Persistable<String> {
         return createdDate == null;
     }
 }
-
-
@@ -15,7 +15,8 @@ import javax.persistence.*;
 public class Member extends BaseEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 100) //V4__entity_sequences.sql 의 increment 와 같아야 한다.
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -26,6 +27,11 @@ public class Member extends BaseEntity {
     @JoinColumn(name = "team_id")
     private Team team;
 
+    //team.name 비정규화 - team 조인 없이 팀 이름으로 검색/표시하기 위한 컬럼
+    //changeTeam, Team.changeName 에서 같이 바꾼다.
+    @Column(name = "team_name")
+    private String teamName;
+
     public Member(String username) {
         this(username, 0);
     }
@@ -43,11 +49,27 @@ public class Member extends BaseEntity {
         }
     }
 
+    /**
+     * 대량 저장용 - changeTeam 과 달리 team.getMembers() (연관관계 주인이 아닌 쪽) 에 추가하지 않는다.
+     * team 이 getReference 프록시여도 초기화되지 않도록 팀 이름은 따로 받는다.
+     */
+    public static Member ofTeamReference(String username, int age, Team team, String teamName) {
+        Member member = new Member(username, age);
+        member.team = team;
+        member.teamName = team == null ? null : teamName;
+        return member;
+    }
+
     public void changeTeam(Team team) {
         this.team = team;
+        this.teamName = team.getName();
         team.getMembers().add(this);
     }
 
+    void syncTeamName(String teamName) {
+        this.teamName = teamName;
+    }
+
     public void changeName(String username) {
         this.username = username;
     }
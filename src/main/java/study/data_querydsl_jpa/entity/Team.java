@@ -16,7 +16,8 @@ import java.util.List;
 public class Team extends JpaBaseEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
     @Column(name = "team_id")
     private Long id;
     private String name;
@@ -27,4 +28,15 @@ public class Team extends JpaBaseEntity {
     public Team(String name) {
         this.name = name;
     }
+
+    /**
+     * 팀 이름 변경 - 소속 회원의 비정규화 컬럼(member.team_name)도 같이 바꾼다.
+     * members 컬렉션을 전부 로딩하므로 회원이 아주 많은 팀이면 벌크 update 를 고려한다.
+     */
+    public void changeName(String name) {
+        this.name = name;
+        for (Member member : members) {
+            member.syncTeamName(name);
+        }
+    }
 }
@@ -0,0 +1,34 @@
+package study.data_querydsl_jpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * 팀별 회원 통계 읽기 모델 (team_stats)
+ * group by 집계를 매번 하지 않고 member 가 바뀔 때 해당 팀만 다시 계산해 둔다. -> TeamStatsUpdater
+ * 값은 네이티브 SQL 로만 갱신하므로 엔티티는 읽기 전용이다.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    private Long teamId;
+    private long memberCount;
+    private long ageSum;
+    private Integer minAge;
+    private Integer maxAge;
+
+    public double getAvgAge() {
+        return memberCount == 0 ? 0 : (double) ageSum / memberCount;
+    }
+}
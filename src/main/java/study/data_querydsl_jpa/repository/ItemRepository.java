@@ -3,5 +3,7 @@ package study.data_querydsl_jpa.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import study.data_querydsl_jpa.entity.Item;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+import java.util.UUID;
+
+public interface ItemRepository extends JpaRepository<Item, UUID>, ItemRepositoryCustom {
 }
@@ -0,0 +1,11 @@
+package study.data_querydsl_jpa.repository;
+
+import study.data_querydsl_jpa.dto.ItemInsertResult;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface ItemRepositoryCustom {
+
+    ItemInsertResult insertAll(Collection<UUID> ids);
+}
@@ -0,0 +1,122 @@
+package study.data_querydsl_jpa.repository;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_querydsl_jpa.dto.ItemInsertResult;
+
+import javax.persistence.EntityManager;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final String INSERT_SQL = "insert into item (id, created_date) values (?, ?)";
+
+    private final EntityManager em;
+
+    public ItemRepositoryImpl(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * Item 은 id 를 직접 넣는 엔티티라서 save 가 merge 로 빠지면 row 마다 select 가 먼저 나간다.
+     * 새 Item 만 넣는 경우는 엔티티를 거치지 않고 insert 만 BATCH_SIZE 단위로 JDBC batch 실행한다. (select 없음)
+     * 이미 있는 id 는 batch 의 실패 건으로 모아서 duplicateIds 로 돌려준다.
+     * - 영속성 컨텍스트를 거치지 않으므로 @CreatedDate 대신 created_date 를 직접 넣고, 대기 중인 변경은 먼저 flush 한다.
+     * - batch 마다 savepoint 를 잡는다. 실패한 문장 이후 트랜잭션을 쓸 수 없는 DB(PostgreSQL 등)도 있으므로
+     *   중복이 있으면 savepoint 로 되돌리고 중복 id 를 뺀 나머지로 batch 를 다시 실행한다. (insertBatch 참고)
+     */
+    @Override
+    @Transactional
+    public ItemInsertResult insertAll(Collection<UUID> ids) {
+        ItemInsertResult result = new ItemInsertResult();
+        if (ids.isEmpty()) {
+            return result;
+        }
+        em.flush();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<UUID> all = new ArrayList<>(ids);
+        em.unwrap(Session.class).doWork(connection -> {
+            for (int from = 0; from < all.size(); from += BATCH_SIZE) {
+                insertBatch(connection, all.subList(from, Math.min(from + BATCH_SIZE, all.size())), now, result);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * savepoint 안에서 batch 를 실행하고, 중복이 있으면 savepoint 로 되돌린 뒤 중복 id 를 빼고 다시 실행한다.
+     * - 드라이버마다 실패 후 동작이 다르다. (H2 는 끝까지 실행해서 실패 건마다 EXECUTE_FAILED, 첫 실패에서 멈추는 드라이버는 getUpdateCounts() 가 짧다)
+     * - 짧으면 결과가 있는 마지막 건 다음이 실패한 건이다. 그 뒤의 건은 실행되지 않았으므로 다시 실행할 때 확인된다.
+     * - inserted 는 savepoint 가 해제된(되돌리지 않은) batch 의 건수만 센다.
+     */
+    static void insertBatch(Connection connection, List<UUID> batch, Timestamp now, ItemInsertResult result) throws SQLException {
+        List<UUID> remaining = new ArrayList<>(batch);
+        while (!remaining.isEmpty()) {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                executeBatch(connection, remaining, now);
+                connection.releaseSavepoint(savepoint);
+                result.setInserted(result.getInserted() + remaining.size());
+                return;
+            } catch (BatchUpdateException e) {
+                //23xxx : 무결성 제약 조건 위반 (pk 중복) 만 중복으로 처리하고 나머지는 그대로 던진다.
+                if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                    throw e;
+                }
+                connection.rollback(savepoint);
+                boolean[] failed = failedRows(e.getUpdateCounts(), remaining.size());
+                List<UUID> retry = new ArrayList<>(remaining.size());
+                for (int i = 0; i < remaining.size(); i++) {
+                    if (failed[i]) {
+                        result.getDuplicateIds().add(remaining.get(i));
+                    } else {
+                        retry.add(remaining.get(i));
+                    }
+                }
+                if (retry.size() == remaining.size()) {
+                    throw e; //실패 건을 알 수 없으면 같은 batch 를 계속 반복하게 된다.
+                }
+                remaining = retry;
+            }
+        }
+    }
+
+    private static boolean[] failedRows(int[] counts, int size) {
+        boolean[] failed = new boolean[size];
+        if (counts == null) {
+            return failed;
+        }
+        if (counts.length < size) {
+            failed[counts.length] = true;
+            return failed;
+        }
+        for (int i = 0; i < size; i++) {
+            failed[i] = counts[i] == Statement.EXECUTE_FAILED;
+        }
+        return failed;
+    }
+
+    private static void executeBatch(Connection connection, List<UUID> ids, Timestamp now) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+            for (UUID id : ids) {
+                ps.setObject(1, id);
+                ps.setTimestamp(2, now);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package study.data_querydsl_jpa.repository;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.repository_querydsl.support.CountCache;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -9,11 +11,14 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
+@RequiredArgsConstructor
 public class MemberJpaRepository {
 
     @PersistenceContext
     private EntityManager em;
 
+    private final CountCache countCache;
+
     public Member save(Member member) {
         em.persist(member);
         return member;
@@ -64,9 +69,18 @@ public class MemberJpaRepository {
                 .getSingleResult();
     }
 
+    /**
+     * 벌크 연산은 이벤트가 없으므로 대상 팀의 team_stats 재계산, count 캐시 무효화를 직접 한다.
+     */
     public int bulkAgePlus(int age) {
-        return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+        List<Long> teamIds = em.createQuery("select distinct m.team.id from Member m where m.age >= :age and m.team is not null", Long.class)
+                .setParameter("age", age)
+                .getResultList();
+        int resultCount = em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
                 .setParameter("age", age)
                 .executeUpdate();
+        TeamStatsUpdater.recompute(em, teamIds);
+        countCache.invalidateByUpdate();
+        return resultCount;
     }
 }
@@ -0,0 +1,37 @@
+package study.data_querydsl_jpa.repository;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.ToString;
+
+/**
+ * MemberProjection 구현 클래스 (프록시 없이 조회 결과로 바로 생성, UsernameOnlyView 참고)
+ */
+@ToString
+public class MemberProjectionView implements MemberProjection {
+
+    private final Long id;
+    private final String username;
+    private final String teamname;
+
+    @QueryProjection
+    public MemberProjectionView(Long id, String username, String teamname) {
+        this.id = id;
+        this.username = username;
+        this.teamname = teamname;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getTeamname() {
+        return teamname;
+    }
+}
@@ -40,11 +40,6 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     Slice<Member> findSliceByAge(int age, Pageable pageable);
 
-    //update 시 @Modifying annotation 필요!
-    @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
-    int bulkAgePlus(@Param("age") int age);
-
     List<Member> findByUsername(String member5);
 
     @Query("select m from Member m left join fetch m.team")
@@ -94,8 +89,10 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     Member findByNativeQuery(String username);
 
     //다음줄 넘길 때 " " 빈칸 꼭 넣어주자..오류 발생하고, 찾기도 힘듦..
+    //on 절이 없으면 member x team 카테시안 곱이 된다. -> team_id 가 선두 컬럼인 인덱스(idx_member_team_age_username)로 조인
+    //member -> team 은 ManyToOne 이라 left join 해도 row 수는 member 수와 같다. -> count 는 member 만 센다.
     @Query(value = "select m.member_id as id, m.username, t.name as teamName from member m " +
-            "left join team t",
+            "left join team t on m.team_id = t.team_id",
             countQuery = "select count(*) from member",
             nativeQuery = true)
     Page<MemberProjection> findByNativeProjection(Pageable pageable);
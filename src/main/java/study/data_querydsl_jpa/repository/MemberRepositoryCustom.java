@@ -1,9 +1,25 @@
 package study.data_querydsl_jpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.data_querydsl_jpa.dto.MemberDto;
 import study.data_querydsl_jpa.entity.Member;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    List<Member> findByNamesBatched(Collection<String> names);
+
+    List<MemberDto> findDtosByIds(Collection<Long> ids);
+
+    List<UsernameOnly> findUsernameOnlyByUsername(String username);
+
+    List<NestedClosedProjections> findNestedClosedByUsername(String username);
+
+    Page<MemberProjection> findMemberProjectionPage(Pageable pageable);
+
+    int bulkAgePlus(int age);
 }
@@ -1,15 +1,38 @@
 package study.data_querydsl_jpa.repository;
 
-import lombok.RequiredArgsConstructor;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_querydsl_jpa.dto.MemberDto;
 import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.repository_querydsl.support.CountCache;
+import study.data_querydsl_jpa.repository_querydsl.support.InLists;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static study.data_querydsl_jpa.entity.QMember.member;
+import static study.data_querydsl_jpa.entity.QTeam.team;
 
-@RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final CountCache countCache;
+
+    public MemberRepositoryImpl(EntityManager em, CountCache countCache) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.countCache = countCache;
+    }
 
     @Override
     public List<Member> findMemberCustom() {
@@ -17,5 +40,106 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .getResultList();
     }
 
+    /**
+     * findByNames 와 같지만 중복 제거 후 InLists.MAX_CHUNK_SIZE 단위로 나눠서 조회한다.
+     * 파라미터 개수는 in_clause_parameter_padding 으로 2의 제곱수로 맞춰지므로 SQL 모양이 몇 개로 고정된다.
+     */
+    @Override
+    public List<Member> findByNamesBatched(Collection<String> names) {
+        return InLists.fetchChunked(names, chunk -> em.createQuery("select m from Member m where m.username in :names", Member.class)
+                .setParameter("names", chunk)
+                .getResultList());
+    }
+
+    /**
+     * id 목록으로 한번에 조회 (findById 를 id 마다 호출하지 않는다)
+     * 중복 id 는 한번만, 결과는 요청한 id 순서대로, 없는 id 는 제외한다.
+     */
+    @Override
+    public List<MemberDto> findDtosByIds(Collection<Long> ids) {
+        Map<Long, MemberDto> found = InLists.fetchChunked(ids, chunk -> em.createQuery(
+                        "select new study.data_querydsl_jpa.dto.MemberDto(m.id, m.username, t.name)" +
+                                " from Member m left join m.team t" +
+                                " where m.id in :ids", MemberDto.class)
+                        .setParameter("ids", chunk)
+                        .getResultList())
+                .stream()
+                .collect(Collectors.toMap(MemberDto::getId, Function.identity()));
+
+        List<MemberDto> result = new ArrayList<>(found.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            MemberDto dto = found.get(id);
+            if (dto != null) {
+                result.add(dto);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 인터페이스 프로젝션을 프록시 없이 조회
+     * findProjectionByUsername / findProjectionClassTypeByUsername 과 같은 결과를
+     * Querydsl APT 가 만든 QXxxView 생성자 프로젝션으로 바로 생성해서 반환한다.
+     */
+    @Override
+    public List<UsernameOnly> findUsernameOnlyByUsername(String username) {
+        return new ArrayList<>(queryFactory
+                .select(new QUsernameOnlyView(member.username))
+                .from(member)
+                .where(member.username.eq(username))
+                .fetch());
+    }
 
+    @Override
+    public List<NestedClosedProjections> findNestedClosedByUsername(String username) {
+        return new ArrayList<>(queryFactory
+                .select(new QNestedClosedProjectionsView(member.username, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.username.eq(username))
+                .fetch());
+    }
+
+    /**
+     * findByNativeProjection 의 JPQL 버전 (member.team 조인 조건이 항상 들어간다)
+     */
+    @Override
+    public Page<MemberProjection> findMemberProjectionPage(Pageable pageable) {
+        List<MemberProjection> content = new ArrayList<>(queryFactory
+                .select(new QMemberProjectionView(member.id, member.username, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch());
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            Long total = queryFactory.select(member.count()).from(member).fetchOne();
+            return total == null ? 0 : total;
+        });
+    }
+
+    /**
+     * update Member m set m.age = m.age + 1 where m.age >= :age
+     * 벌크 연산은 하이버네이트 이벤트가 없으므로 대상 팀을 먼저 구해두고 update 후 team_stats 재계산, count 캐시 무효화를 직접 한다.
+     * 기존 @Modifying(clearAutomatically = true) 처럼 마지막에 영속성 컨텍스트를 비운다.
+     */
+    @Override
+    @Transactional
+    public int bulkAgePlus(int age) {
+        List<Long> teamIds = queryFactory
+                .select(member.team.id).distinct()
+                .from(member)
+                .where(member.age.goe(age), member.team.isNotNull())
+                .fetch();
+
+        int resultCount = em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+                .setParameter("age", age)
+                .executeUpdate();
+
+        TeamStatsUpdater.recompute(em, teamIds);
+        countCache.invalidateByUpdate();
+        em.clear();
+        return resultCount;
+    }
 }
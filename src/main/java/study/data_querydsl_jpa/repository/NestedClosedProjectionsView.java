@@ -0,0 +1,47 @@
+package study.data_querydsl_jpa.repository;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.ToString;
+
+/**
+ * NestedClosedProjections 구현 클래스 (프록시 없이 조회 결과로 바로 생성, UsernameOnlyView 참고)
+ * 인터페이스 프로젝션은 중첩 대상(team)을 엔티티 전체 컬럼으로 조회하지만, 여기서는 필요한 컬럼만 조회한다.
+ * 팀이 없으면 인터페이스 프로젝션과 같이 getTeam() 은 null 이다.
+ */
+@ToString
+public class NestedClosedProjectionsView implements NestedClosedProjections {
+
+    private final String username;
+    private final TeamInfo team;
+
+    @QueryProjection
+    public NestedClosedProjectionsView(String username, Long teamId, String teamName) {
+        this.username = username;
+        this.team = teamId == null ? null : new TeamInfoView(teamName);
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public TeamInfo getTeam() {
+        return team;
+    }
+
+    @ToString
+    static class TeamInfoView implements TeamInfo {
+
+        private final String name;
+
+        TeamInfoView(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -1,7 +1,17 @@
 package study.data_querydsl_jpa.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import study.data_querydsl_jpa.dto.TeamStatsDto;
 import study.data_querydsl_jpa.entity.Team;
 
+import java.util.List;
+
 public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    //team_stats 읽기 모델 조회 (member group by 없음) -> TeamStatsUpdater
+    @Query("select new study.data_querydsl_jpa.dto.TeamStatsDto(t.id, t.name, s.memberCount, s.ageSum, s.minAge, s.maxAge)" +
+            " from TeamStats s join Team t on s.teamId = t.id" +
+            " order by t.id")
+    List<TeamStatsDto> findTeamStats();
 }
@@ -0,0 +1,186 @@
+package study.data_querydsl_jpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.entity.Team;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * team_stats(TeamStats) 갱신
+ * <p>
+ * Member insert / delete / age, team 변경, Team insert / delete 를 하이버네이트 이벤트로 받아서 변경된 팀 id 를 모아두고,
+ * 커밋 직전(flush 이후, BeforeTransactionCompletionProcess)에 그 팀들만 member 에서 다시 집계한다. -> 같은 트랜잭션
+ * min/max 는 삭제 시 증감으로 계산할 수 없으므로 팀 단위로 다시 계산한다. (member.team_id 인덱스 사용)
+ * 같은 팀을 동시에 바꾸는 트랜잭션은 서로의 커밋 전 row 를 못 보므로, 집계 전에 team row 를 잠가서 팀 단위로 순서대로 계산한다.
+ * -> 뒤에 온 트랜잭션은 앞의 트랜잭션이 커밋한 뒤에 집계하므로 오래된 값으로 덮어쓰지 않는다.
+ * <p>
+ * 벌크 update/delete 는 이벤트가 없으므로 호출하는 쪽에서 recompute 를 직접 호출한다. (bulkAgePlus 참고)
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamStatsUpdater implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    //id 순서로 잠가서 여러 팀을 같이 바꾸는 트랜잭션끼리 교착 상태가 생기지 않게 한다.
+    private static final String LOCK_SQL = "select t.team_id from team t where t.team_id in (:teamIds) order by t.team_id for update";
+    private static final String MERGE_SQL = "merge into team_stats (team_id, member_count, age_sum, min_age, max_age) key (team_id) " +
+            "select t.team_id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age) " +
+            "from team t left join member m on m.team_id = t.team_id " +
+            "where t.team_id in (:teamIds) " +
+            "group by t.team_id";
+    private static final String DELETE_SQL = "delete from team_stats s " +
+            "where s.team_id in (:teamIds) " +
+            "and not exists (select 1 from team t where t.team_id = s.team_id)";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    /**
+     * teamIds 팀들의 통계를 member 에서 다시 계산한다. (없어진 팀은 통계도 삭제)
+     * team row 잠금은 트랜잭션이 끝날 때까지 유지된다.
+     */
+    public static void recompute(EntityManager em, Collection<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return;
+        }
+        em.createNativeQuery(LOCK_SQL).setParameter("teamIds", teamIds).getResultList();
+        em.createNativeQuery(MERGE_SQL).setParameter("teamIds", teamIds).executeUpdate();
+        em.createNativeQuery(DELETE_SQL).setParameter("teamIds", teamIds).executeUpdate();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Member) {
+            markDirty(event.getSession(), teamId(((Member) entity).getTeam()));
+        } else if (entity instanceof Team) {
+            markDirty(event.getSession(), ((Team) entity).getId());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        if (event.getOldState() == null) {
+            //detached 엔티티 update -> 이전 값을 모르므로 현재 팀만 다시 계산
+            markDirty(event.getSession(), teamId(((Member) event.getEntity()).getTeam()));
+            return;
+        }
+        String[] properties = event.getPersister().getPropertyNames();
+        Object[] oldState = event.getOldState();
+        Object[] state = event.getState();
+        Long oldTeamId = null;
+        Long newTeamId = null;
+        boolean changed = false;
+        for (int i = 0; i < properties.length; i++) {
+            if (properties[i].equals("team")) {
+                oldTeamId = teamId((Team) oldState[i]);
+                newTeamId = teamId((Team) state[i]);
+                changed |= !Objects.equals(oldTeamId, newTeamId);
+            } else if (properties[i].equals("age")) {
+                changed |= !Objects.equals(oldState[i], state[i]);
+            }
+        }
+        if (changed) {
+            markDirty(event.getSession(), oldTeamId);
+            markDirty(event.getSession(), newTeamId);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Member) {
+            markDirty(event.getSession(), teamId(((Member) entity).getTeam()));
+        } else if (entity instanceof Team) {
+            markDirty(event.getSession(), ((Team) entity).getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private static Long teamId(Team team) {
+        return team == null ? null : team.getId();
+    }
+
+    /**
+     * 스프링 트랜잭션이면 트랜잭션당 하나의 Refresh 에 팀 id 를 모으고, 아니면 이벤트마다 등록한다.
+     * 롤백되면 Refresh 가 실행되지 않으므로 트랜잭션 종료 시 리소스를 직접 정리한다.
+     */
+    private void markDirty(EventSource session, Long teamId) {
+        if (teamId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Refresh refresh = new Refresh();
+            refresh.teamIds.add(teamId);
+            session.getActionQueue().registerProcess(refresh);
+            return;
+        }
+        Refresh refresh = (Refresh) TransactionSynchronizationManager.getResource(Refresh.class);
+        if (refresh == null) {
+            refresh = new Refresh();
+            TransactionSynchronizationManager.bindResource(Refresh.class, refresh);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(Refresh.class);
+                }
+            });
+            session.getActionQueue().registerProcess(refresh);
+        }
+        refresh.teamIds.add(teamId);
+    }
+
+    private static class Refresh implements BeforeTransactionCompletionProcess {
+        private final Set<Long> teamIds = new LinkedHashSet<>();
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            if (teamIds.isEmpty()) {
+                return;
+            }
+            List<Long> ids = new ArrayList<>(teamIds);
+            teamIds.clear();
+            recompute(session, ids);
+        }
+    }
+}
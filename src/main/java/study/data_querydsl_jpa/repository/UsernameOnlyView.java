@@ -0,0 +1,26 @@
+package study.data_querydsl_jpa.repository;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.ToString;
+
+/**
+ * UsernameOnly 구현 클래스
+ * 인터페이스 프로젝션은 스프링 데이터가 row 마다 프록시(+ SpEL)를 만들어서 돌려준다.
+ * 대신 @QueryProjection 생성자로 Querydsl APT 가 빌드 시점에 QUsernameOnlyView 를 만들고,
+ * 조회 결과로 바로 이 클래스를 생성한다. (MemberRepositoryImpl 참고)
+ */
+@ToString
+public class UsernameOnlyView implements UsernameOnly {
+
+    private final String username;
+
+    @QueryProjection
+    public UsernameOnlyView(String username) {
+        this.username = username;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+}
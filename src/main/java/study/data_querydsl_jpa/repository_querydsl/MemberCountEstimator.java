@@ -0,0 +1,84 @@
+package study.data_querydsl_jpa.repository_querydsl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.data_querydsl_jpa.dto.MemberSearchCondition;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 회원 검색 total count 추정 (H2 INFORMATION_SCHEMA 통계 사용)
+ * <p>
+ * member row 수 추정치(TABLES.ROW_COUNT_ESTIMATE) * 조건별 선택도 로 계산한다.
+ * - username, teamName = 조건 : 1 / 서로 다른 값의 수 (COLUMNS.SELECTIVITY 는 서로 다른 값의 비율(0~100))
+ * - ageGoe, ageLoe 범위 조건 : 히스토그램이 없으므로 조건 하나당 1/3 로 가정
+ * selectivity 는 ANALYZE 를 실행해야 갱신되고, 그 전에는 기본값(50)이다.
+ * 정확한 값이 아니므로 임계치(threshold) 이상으로 데이터가 많을 때만 사용한다.
+ */
+@Component
+public class MemberCountEstimator {
+
+    private static final double RANGE_SELECTIVITY = 1.0 / 3;
+
+    private final EntityManager em;
+    private final long threshold;
+
+    public MemberCountEstimator(EntityManager em,
+                                @Value("${paging.estimated-count.threshold:100000}") long threshold) {
+        this.em = em;
+        this.threshold = threshold;
+    }
+
+    /**
+     * member 추정 row 수가 threshold 미만이면 empty -> 정확한 count 쿼리를 사용한다.
+     */
+    public OptionalLong estimate(MemberSearchCondition condition) {
+        long memberRows = rowCountEstimate("MEMBER");
+        if (memberRows < threshold) {
+            return OptionalLong.empty();
+        }
+
+        double selectivity = 1.0;
+        if (hasText(condition.getUsername())) {
+            selectivity *= equalitySelectivity(memberRows, columnSelectivity("MEMBER", "USERNAME"));
+        }
+        if (hasText(condition.getTeamName())) {
+            selectivity *= equalitySelectivity(rowCountEstimate("TEAM"), columnSelectivity("TEAM", "NAME"));
+        }
+        if (condition.getAgeGoe() != null) {
+            selectivity *= RANGE_SELECTIVITY;
+        }
+        if (condition.getAgeLoe() != null) {
+            selectivity *= RANGE_SELECTIVITY;
+        }
+
+        return OptionalLong.of(Math.round(memberRows * selectivity));
+    }
+
+    //서로 다른 값의 수 = rows * selectivity / 100 -> 값 하나가 차지하는 비율
+    private double equalitySelectivity(long rows, int columnSelectivity) {
+        double distinctValues = Math.max(1.0, rows * columnSelectivity / 100.0);
+        return 1.0 / distinctValues;
+    }
+
+    private long rowCountEstimate(String table) {
+        List<?> result = em.createNativeQuery("select row_count_estimate from information_schema.tables " +
+                        "where table_schema = schema() and table_name = ?")
+                .setParameter(1, table)
+                .getResultList();
+        return result.isEmpty() ? 0 : ((Number) result.get(0)).longValue();
+    }
+
+    private int columnSelectivity(String table, String column) {
+        List<?> result = em.createNativeQuery("select selectivity from information_schema.columns " +
+                        "where table_schema = schema() and table_name = ? and column_name = ?")
+                .setParameter(1, table)
+                .setParameter(2, column)
+                .getResultList();
+        return result.isEmpty() ? 100 : ((Number) result.get(0)).intValue();
+    }
+}
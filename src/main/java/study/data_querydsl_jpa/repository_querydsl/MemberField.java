@@ -0,0 +1,70 @@
+package study.data_querydsl_jpa.repository_querydsl;
+
+import com.querydsl.core.types.Expression;
+import study.data_querydsl_jpa.common.BadRequestException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.data_querydsl_jpa.entity.QMember.member;
+import static study.data_querydsl_jpa.entity.QTeam.team;
+
+/**
+ * 회원 검색에서 클라이언트가 선택할 수 있는 컬럼 (fields=username,teamName)
+ * 필요한 컬럼만 select 하고, team 컬럼이 없으면 team 조인도 하지 않는다.
+ * teamId 는 member.team_id (FK) 로 바로 조회하므로 조인이 필요 없다.
+ */
+public enum MemberField {
+    MEMBER_ID("memberId", member.id, false),
+    USERNAME("username", member.username, false),
+    AGE("age", member.age, false),
+    TEAM_ID("teamId", member.team.id, false),
+    TEAM_NAME("teamName", team.name, true);
+
+    private final String fieldName;
+    private final Expression<?> path;
+    private final boolean teamJoin;
+
+    MemberField(String fieldName, Expression<?> path, boolean teamJoin) {
+        this.fieldName = fieldName;
+        this.path = path;
+        this.teamJoin = teamJoin;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public Expression<?> getPath() {
+        return path;
+    }
+
+    public boolean isTeamJoin() {
+        return teamJoin;
+    }
+
+    /**
+     * "username, teamName" -> [USERNAME, TEAM_NAME], 비어 있으면 전체 컬럼, 없는 필드명은 400
+     */
+    public static Set<MemberField> parse(String fields) {
+        if (!hasText(fields)) {
+            return EnumSet.allOf(MemberField.class);
+        }
+        Set<MemberField> result = EnumSet.noneOf(MemberField.class);
+        for (String fieldName : fields.split(",")) {
+            if (hasText(fieldName)) {
+                result.add(of(fieldName.trim()));
+            }
+        }
+        return result.isEmpty() ? EnumSet.allOf(MemberField.class) : result;
+    }
+
+    private static MemberField of(String fieldName) {
+        return Arrays.stream(values())
+                .filter(field -> field.fieldName.equals(fieldName))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("unknown member field: " + fieldName));
+    }
+}
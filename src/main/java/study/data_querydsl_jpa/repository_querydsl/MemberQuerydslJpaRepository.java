@@ -2,7 +2,9 @@ package study.data_querydsl_jpa.repository_querydsl;
 
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Repository;
 import study.data_querydsl_jpa.dto.MemberSearchCondition;
 import study.data_querydsl_jpa.dto.MemberTeamDto;
@@ -10,8 +12,10 @@ import study.data_querydsl_jpa.dto.QMemberTeamDto;
 import study.data_querydsl_jpa.entity.Member;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.data_querydsl_jpa.entity.QMember.member;
@@ -32,8 +36,14 @@ import static study.data_querydsl_jpa.entity.QTeam.team;
 //순수 JPA 코드들
 @Repository
 public class MemberQuerydslJpaRepository {
+
+    private static final QMemberTeamDto MEMBER_TEAM_DTO = new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name);
+
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchJpql searchJpql = new MemberSearchJpql(this::searchQuery);
+    private final MemberSearchJpql builderJpql = new MemberSearchJpql(this::searchByBuilderQuery);
+    private final MemberSearchJpql memberJpql = new MemberSearchJpql(this::searchMemberQuery);
 
     public MemberQuerydslJpaRepository(EntityManager em) {
         this.em = em;
@@ -81,8 +91,13 @@ public class MemberQuerydslJpaRepository {
      * 동적쿼리 - Builder 사용
      * 조회조건 추가
      * 동적쿼리는 where 절 추천
+     * 쿼리는 조건 모양(shape) 별로 한번만 직렬화해서 재사용한다. (MemberSearchJpql 참고)
      */
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
+        return toMemberTeamDtos(MemberSearchJpql.bind(em.createQuery(builderJpql.jpql(condition)), condition).getResultList());
+    }
+
+    private JPAQuery<MemberTeamDto> searchByBuilderQuery(MemberSearchCondition condition) {
 
         BooleanBuilder builder = new BooleanBuilder();
         if (hasText(condition.getUsername())) {
@@ -99,31 +114,23 @@ public class MemberQuerydslJpaRepository {
         }
 
         return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
+                .select(MEMBER_TEAM_DTO)
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(builder)
-                .fetch();
+                .where(builder);
     }
 
     /**
      * 동적쿼리 - Where 절 사용 - 추천
+     * searchByBuilder 와 같이 shape 별로 캐시한 JPQL 에 파라미터만 바인딩한다.
      */
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return toMemberTeamDtos(MemberSearchJpql.bind(em.createQuery(searchJpql.jpql(condition)), condition).getResultList());
+    }
+
+    private JPAQuery<MemberTeamDto> searchQuery(MemberSearchCondition condition) {
         return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
+                .select(MEMBER_TEAM_DTO)
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
@@ -131,14 +138,31 @@ public class MemberQuerydslJpaRepository {
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+                );
+    }
+
+    /**
+     * 동적쿼리 - Stream 조회
+     * search 와 같은 조건이지만 결과를 List 로 한번에 올리지 않고 JDBC 커서(forward-only)로 한건씩 읽는다.
+     * dto 조회라 영속성 컨텍스트에 엔티티가 쌓이지 않는다.
+     * 반드시 트랜잭션 안에서 사용하고, 다 읽으면 close 해야 한다. (try-with-resources)
+     */
+    public Stream<MemberTeamDto> searchStream(MemberSearchCondition condition, int fetchSize) {
+        return searchQuery(condition)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .stream();
     }
 
     /**
      * 동적쿼리 - Where 절 코드 재사용
      */
     public List<Member> searchMember(MemberSearchCondition condition) {
+        return MemberSearchJpql.bind(em.createQuery(memberJpql.jpql(condition), Member.class), condition)
+                .getResultList();
+    }
+
+    private JPAQuery<Member> searchMemberQuery(MemberSearchCondition condition) {
         return queryFactory
                 .selectFrom(member)
                 .leftJoin(member.team, team)
@@ -147,8 +171,16 @@ public class MemberQuerydslJpaRepository {
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+                );
+    }
+
+    //캐시한 JPQL 은 Querydsl 프로젝션 없이 실행되므로 컬럼 배열(Object[]) 을 직접 MemberTeamDto 로 만든다.
+    private List<MemberTeamDto> toMemberTeamDtos(List<?> rows) {
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(MEMBER_TEAM_DTO.newInstance((Object[]) row));
+        }
+        return result;
     }
 
     //Predicate 반환값 보다 BooleanExpression 하는게 더 좋을 듯하다, BooleanExpression 는 and, or 로 체이닝이 가능하다.
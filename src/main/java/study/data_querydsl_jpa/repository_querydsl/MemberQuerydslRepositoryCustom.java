@@ -2,17 +2,44 @@ package study.data_querydsl_jpa.repository_querydsl;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.data_querydsl_jpa.dto.CursorPage;
+import study.data_querydsl_jpa.dto.MemberCursor;
 import study.data_querydsl_jpa.dto.MemberSearchCondition;
 import study.data_querydsl_jpa.dto.MemberTeamDto;
+import study.data_querydsl_jpa.repository_querydsl.support.CountMode;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface MemberQuerydslRepositoryCustom {
     List<MemberTeamDto> search(MemberSearchCondition condition);
 
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
 
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+
+    Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable, CountMode countMode);
     
     Page<MemberTeamDto> searchPageComplexImproved(MemberSearchCondition condition, Pageable pageable);
+
+    Page<MemberTeamDto> searchPageComplexParallel(MemberSearchCondition condition, Pageable pageable);
+
+    Page<MemberTeamDto> searchPageDenormalized(MemberSearchCondition condition, Pageable pageable);
+
+    Page<MemberTeamDto> searchPageWithTotal(MemberSearchCondition condition, Pageable pageable);
+
+    List<Map<String, Object>> searchFields(MemberSearchCondition condition, Set<MemberField> fields);
+
+    Page<Map<String, Object>> searchPageFields(MemberSearchCondition condition, Set<MemberField> fields, Pageable pageable);
+
+    List<MemberTeamDto> searchByUsernames(Collection<String> usernames, boolean parallel);
+
+    CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, String cursor, int size);
+
+    CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, MemberCursor.SortKey sortKey, String cursor, int size);
 }
@@ -1,18 +1,43 @@
 package study.data_querydsl_jpa.repository_querydsl;
 
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.util.Assert;
+import study.data_querydsl_jpa.common.BadRequestException;
+import study.data_querydsl_jpa.dto.CursorPage;
+import study.data_querydsl_jpa.dto.EstimatedPage;
+import study.data_querydsl_jpa.dto.MemberCursor;
 import study.data_querydsl_jpa.dto.MemberSearchCondition;
 import study.data_querydsl_jpa.dto.MemberTeamDto;
 import study.data_querydsl_jpa.dto.QMemberTeamDto;
-import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.repository_querydsl.support.CountCache;
+import study.data_querydsl_jpa.repository_querydsl.support.CountMode;
+import study.data_querydsl_jpa.repository_querydsl.support.InLists;
+import study.data_querydsl_jpa.repository_querydsl.support.ParallelChunkExecutor;
+import study.data_querydsl_jpa.repository_querydsl.support.ParallelCountExecutor;
+import study.data_querydsl_jpa.repository_querydsl.support.Slices;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.data_querydsl_jpa.entity.QMember.member;
@@ -30,10 +55,35 @@ import static study.data_querydsl_jpa.entity.QTeam.team;
  */
 public class MemberQuerydslRepositoryImpl implements MemberQuerydslRepositoryCustom {
 
+    //네이티브 쿼리 정렬 허용 목록 (sort 속성명 -> 컬럼)
+    private static final Map<String, String> NATIVE_SORT_COLUMNS = Map.of(
+            "memberId", "m.member_id",
+            "id", "m.member_id",
+            "username", "m.username",
+            "age", "m.age",
+            "teamId", "t.team_id",
+            "teamName", "t.name"
+    );
+
+    //커서 페이징 최대 size (spring.data.web.pageable.max-page-size 와 같게)
+    private static final int MAX_CURSOR_SIZE = 2000;
+
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final ParallelCountExecutor parallelCountExecutor;
+    private final ParallelChunkExecutor parallelChunkExecutor;
+    private final CountCache countCache;
+    private final MemberCountEstimator countEstimator;
 
-    public MemberQuerydslRepositoryImpl(EntityManager em) {
+    public MemberQuerydslRepositoryImpl(EntityManager em, ParallelCountExecutor parallelCountExecutor,
+                                        ParallelChunkExecutor parallelChunkExecutor, CountCache countCache,
+                                        MemberCountEstimator countEstimator) {
+        this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.parallelCountExecutor = parallelCountExecutor;
+        this.parallelChunkExecutor = parallelChunkExecutor;
+        this.countCache = countCache;
+        this.countEstimator = countEstimator;
     }
 
     @Override
@@ -84,6 +134,35 @@ public class MemberQuerydslRepositoryImpl implements MemberQuerydslRepositoryCus
         return new PageImpl<>(content, pageable, total);
     }
 
+    /**
+     * count 쿼리 없는 Slice - 페이지 사이즈 + 1 건 조회로 다음 페이지 존재 여부 판단
+     */
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> rows = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .orderBy(pageOrder(pageable.getSort(), false))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1)
+                .fetch();
+
+        return Slices.of(rows, pageable);
+    }
+
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
         List<MemberTeamDto> content = queryFactory
@@ -102,18 +181,45 @@ public class MemberQuerydslRepositoryImpl implements MemberQuerydslRepositoryCus
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
+                .orderBy(pageOrder(pageable.getSort(), false))
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
 
         /**
          * fetchResults(), fetchCount() 의 2가지 방법으로 페이징 처리를 하려하니, 둘다 Deprecated(사용되지 않음) 경고가 발생.
-         * fetchResults 로 페이징과 동시에 count 를 가져오고, 혹은
-         * fetchCount 로 카운트 쿼리를 따로 호출하려했는데, 현재 최적화 하는 방법을 찾는중.
-         * 내 생각에는 그냥 fetch() 호출하여 페이징 처리된 데이터, 토탈카운트는 최적 쿼리를 짜서 fetch() 후, size() 로 가져와야 할 것 같다.
+         * fetch().size() 로 세면 조건에 맞는 Member 엔티티를 전부 영속성 컨텍스트에 올리게 되므로
+         * select count(member.id) 쿼리를 직접 작성해서 DB 에서 카운트만 가져온다. (+ 조건별 count 캐시)
          */
-        List<Member> count = queryFactory
-                .select(member)
+        long total = count(condition);
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * countMode = ESTIMATED 이면 데이터가 많을 때 count 쿼리 대신 DB 통계로 total 을 추정한다.
+     * 추정하지 않는 경우(임계치 미만)에는 EXACT 와 같이 count 쿼리를 실행한다.
+     * 마지막 페이지는 offset + 컨텐츠 사이즈로 정확한 total 을 알 수 있으므로 추정치를 쓰지 않는다. (범위를 벗어난 페이지는 count 쿼리)
+     * 정렬이 없으면 member.id 순으로 조회한다. -> 페이지를 넘겨도 같은 row 가 두번 나오거나 빠지지 않는다.
+     */
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable, CountMode countMode) {
+        if (countMode != CountMode.ESTIMATED) {
+            return searchPageComplexImproved(condition, pageable);
+        }
+        OptionalLong estimated = countEstimator.estimate(condition);
+        if (estimated.isEmpty()) {
+            return searchPageComplexImproved(condition, pageable);
+        }
+
+        List<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name
+                ))
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
@@ -122,18 +228,32 @@ public class MemberQuerydslRepositoryImpl implements MemberQuerydslRepositoryCus
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
+                .orderBy(pageable.getSort().isSorted()
+                        ? pageOrder(pageable.getSort(), false)
+                        : new OrderSpecifier<?>[]{member.id.asc()})
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
                 .fetch();
-        long total = count.size();
 
-        return new PageImpl<>(content, pageable, total);
+        if (content.isEmpty() && pageable.getOffset() > 0) {
+            //범위를 벗어난 페이지 -> offset 으로는 total 을 알 수 없으므로 searchPageWithTotal 과 같이 count 쿼리
+            return new EstimatedPage<>(content, pageable, count(condition), false);
+        }
+        if (content.size() < pageable.getPageSize()) {
+            return new EstimatedPage<>(content, pageable, pageable.getOffset() + content.size(), false);
+        }
+        //추정치가 현재 페이지보다 작으면 다음 페이지가 있을 수 있도록 최소 한 건을 더 잡아준다.
+        long total = Math.max(estimated.getAsLong(), pageable.getOffset() + content.size() + 1);
+        return new EstimatedPage<>(content, pageable, total, true);
     }
 
     /**
-     * 스프링 데이터 라이브러리가 제공 - 안되는 듯 하다.
+     * 스프링 데이터 라이브러리가 제공
      * count 쿼리가 생략 가능한 경우 생략해서 처리
      * 페이지 시작이면서 컨텐츠 사이즈가 페이지 사이즈보다 작을 때
      * 마지막 페이지 일 때 (offset + 컨텐츠 사이즈를 더해서 전체 사이즈 구함)
-     * 권장하지않아서 사용 안되는 듯 하다
+     * org.springframework.data.repository.support.PageableExecutionUtils 는 deprecated 되었고
+     * org.springframework.data.support.PageableExecutionUtils 로 옮겨졌다.
      */
     public Page<MemberTeamDto> searchPageComplexImproved(MemberSearchCondition condition, Pageable pageable) {
         List<MemberTeamDto> content = queryFactory
@@ -152,25 +272,424 @@ public class MemberQuerydslRepositoryImpl implements MemberQuerydslRepositoryCus
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
+                .orderBy(pageOrder(pageable.getSort(), false))
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
 
-        //fetch() 하기전에는 실제로 쿼리가 날라가진 않는다.
-        JPAQuery<Member> countQuery = queryFactory
-                .select(member)
+        //첫 페이지의 컨텐츠가 페이지 사이즈보다 작거나, 마지막 페이지인 경우 count 쿼리를 호출하지 않는다.
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(condition));
+    }
+
+    /**
+     * searchPageComplex 와 같은 쿼리지만 count 쿼리를 별도 트랜잭션에서 동시에 실행한다.
+     * 아직 커밋되지 않은 데이터는 count 에 포함되지 않는다. -> ParallelCountExecutor 참고
+     * count 는 다른 검색과 같이 count 캐시를 거친다. (캐시에 있으면 count 쿼리를 실행하지 않는다)
+     */
+    @Override
+    public Page<MemberTeamDto> searchPageComplexParallel(MemberSearchCondition condition, Pageable pageable) {
+        return parallelCountExecutor.getPage(pageable,
+                () -> queryFactory
+                        .select(new QMemberTeamDto(
+                                member.id,
+                                member.username,
+                                member.age,
+                                team.id,
+                                team.name
+                        ))
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(
+                                usernameEq(condition.getUsername()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())
+                        )
+                        .orderBy(pageOrder(pageable.getSort(), false))
+                        .offset(pageable.getOffset())
+                        .limit(pageable.getPageSize())
+                        .fetch(),
+                () -> count(condition));
+    }
+
+    /**
+     * team 조인 없는 검색 - member.team_name 비정규화 컬럼으로 팀 이름을 조건/결과에 사용한다.
+     * teamId 는 member.team_id (FK) 를 그대로 읽는다.
+     * 결과는 searchPageComplex 와 같으므로 count 캐시도 같은 키를 사용한다. (정렬도 같은 속성명으로 pageOrder 를 사용)
+     */
+    @Override
+    public Page<MemberTeamDto> searchPageDenormalized(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        member.team.id,
+                        member.teamName
+                ))
                 .from(member)
-                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        memberTeamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .orderBy(pageOrder(pageable.getSort(), true))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> countCache.get(condition.normalize(), () -> {
+            Long total = queryFactory
+                    .select(member.count())
+                    .from(member)
+                    .where(
+                            usernameEq(condition.getUsername()),
+                            memberTeamNameEq(condition.getTeamName()),
+                            ageGoe(condition.getAgeGoe()),
+                            ageLoe(condition.getAgeLoe())
+                    )
+                    .fetchOne();
+            return total == null ? 0 : total;
+        }));
+    }
+
+    /**
+     * 네이티브 쿼리 + 윈도우 함수 count(*) over() 로 컨텐츠와 전체 카운트를 한번에 가져온다. (DB 왕복 1번)
+     * 윈도우 함수는 limit/offset 적용 전에 계산되므로 각 row 에 전체 건수가 담겨온다.
+     * 요청한 페이지가 범위를 벗어나 row 가 없을 때만 count 쿼리를 한번 더 실행한다.
+     * 네이티브 쿼리라 sort 는 NATIVE_SORT_COLUMNS 에 있는 속성만 허용한다. (그 외 속성은 400)
+     */
+    @Override
+    public Page<MemberTeamDto> searchPageWithTotal(MemberSearchCondition condition, Pageable pageable) {
+        StringBuilder sql = new StringBuilder()
+                .append("select m.member_id, m.username, m.age, t.team_id, t.name, count(*) over() as total_count ")
+                .append("from member m ")
+                .append("left join team t on m.team_id = t.team_id ")
+                .append("where 1 = 1");
+
+        List<Object> params = new ArrayList<>();
+        if (hasText(condition.getUsername())) {
+            sql.append(" and m.username = ?");
+            params.add(condition.getUsername());
+        }
+        if (hasText(condition.getTeamName())) {
+            sql.append(" and t.name = ?");
+            params.add(condition.getTeamName());
+        }
+        if (condition.getAgeGoe() != null) {
+            sql.append(" and m.age >= ?");
+            params.add(condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() != null) {
+            sql.append(" and m.age <= ?");
+            params.add(condition.getAgeLoe());
+        }
+        sql.append(" order by ").append(nativeOrderBy(pageable.getSort()));
+
+        Query query = em.createNativeQuery(sql.toString());
+        for (int i = 0; i < params.size(); i++) {
+            query.setParameter(i + 1, params.get(i));
+        }
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+
+        List<MemberTeamDto> content = new ArrayList<>(rows.size());
+        long total = 0;
+        for (Object[] row : rows) {
+            content.add(new MemberTeamDto(
+                    toLong(row[0]),
+                    (String) row[1],
+                    ((Number) row[2]).intValue(),
+                    toLong(row[3]),
+                    (String) row[4]));
+            total = ((Number) row[5]).longValue();
+        }
+
+        if (content.isEmpty() && pageable.isPaged() && pageable.getOffset() > 0) {
+            total = count(condition);
+        }
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    //정렬 조건 + member_id 를 마지막에 붙여서 페이지 간 순서가 흔들리지 않게 한다.
+    private String nativeOrderBy(Sort sort) {
+        StringBuilder orderBy = new StringBuilder();
+        for (Sort.Order order : sort) {
+            String column = NATIVE_SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new BadRequestException("정렬할 수 없는 속성입니다. property=" + order.getProperty());
+            }
+            orderBy.append(column).append(order.isAscending() ? " asc" : " desc").append(", ");
+        }
+        return orderBy.append("m.member_id asc").toString();
+    }
+
+    /**
+     * pageable 정렬 -> OrderSpecifier (허용 속성은 NATIVE_SORT_COLUMNS 와 같다, 그 외 속성은 400)
+     * 정렬이 있으면 member.id 를 마지막에 붙여서 페이지 간 순서가 흔들리지 않게 한다. 정렬이 없으면 order by 를 붙이지 않는다.
+     * denormalized = true 이면 팀 속성을 team 조인 대신 member 컬럼(team_id, team_name)으로 정렬한다.
+     */
+    private OrderSpecifier<?>[] pageOrder(Sort sort, boolean denormalized) {
+        if (sort.isUnsorted()) {
+            return new OrderSpecifier<?>[0];
+        }
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Order direction = order.isAscending() ? Order.ASC : Order.DESC;
+            switch (order.getProperty()) {
+                case "memberId":
+                case "id":
+                    orders.add(new OrderSpecifier<>(direction, member.id));
+                    break;
+                case "username":
+                    orders.add(new OrderSpecifier<>(direction, member.username));
+                    break;
+                case "age":
+                    orders.add(new OrderSpecifier<>(direction, member.age));
+                    break;
+                case "teamId":
+                    orders.add(new OrderSpecifier<>(direction, denormalized ? member.team.id : team.id));
+                    break;
+                case "teamName":
+                    orders.add(new OrderSpecifier<>(direction, denormalized ? member.teamName : team.name));
+                    break;
+                default:
+                    throw new BadRequestException("정렬할 수 없는 속성입니다. property=" + order.getProperty());
+            }
+        }
+        orders.add(new OrderSpecifier<>(Order.ASC, member.id));
+        return orders.toArray(new OrderSpecifier<?>[0]);
+    }
+
+    private Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    /**
+     * 선택한 컬럼(fields)만 조회 -> Tuple 을 {필드명: 값} Map 으로 변환
+     * team 컬럼도 teamName 조건도 team 정렬도 없으면 team 조인을 생략한다.
+     */
+    @Override
+    public List<Map<String, Object>> searchFields(MemberSearchCondition condition, Set<MemberField> fields) {
+        return toMaps(fieldsQuery(condition, fields, Sort.unsorted()).fetch(), fields);
+    }
+
+    @Override
+    public Page<Map<String, Object>> searchPageFields(MemberSearchCondition condition, Set<MemberField> fields, Pageable pageable) {
+        List<Tuple> rows = fieldsQuery(condition, fields, pageable.getSort())
+                .orderBy(pageOrder(pageable.getSort(), false))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        return PageableExecutionUtils.getPage(toMaps(rows, fields), pageable, () -> count(condition));
+    }
+
+    private JPAQuery<Tuple> fieldsQuery(MemberSearchCondition condition, Set<MemberField> fields, Sort sort) {
+        Assert.notEmpty(fields, "fields must not be empty");
+        JPAQuery<Tuple> query = queryFactory
+                .select(fields.stream().map(MemberField::getPath).toArray(Expression[]::new))
+                .from(member);
+
+        //pageOrder 는 teamId, teamName 을 team 조인 컬럼으로 정렬한다.
+        boolean teamSort = sort.getOrderFor("teamId") != null || sort.getOrderFor("teamName") != null;
+        if (hasText(condition.getTeamName()) || teamSort || fields.stream().anyMatch(MemberField::isTeamJoin)) {
+            query.leftJoin(member.team, team);
+        }
+
+        return query
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 );
+    }
+
+    private List<Map<String, Object>> toMaps(List<Tuple> rows, Set<MemberField> fields) {
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (MemberField field : fields) {
+                values.put(field.getFieldName(), row.get(field.getPath()));
+            }
+            result.add(values);
+        }
+        return result;
+    }
+
+    /**
+     * member.username.in(...) 조회 - 중복 제거 후 InLists.MAX_CHUNK_SIZE 단위로 나눠서 조회 후 합친다.
+     * parallel = true 이면 chunk 들을 ParallelChunkExecutor 스레드풀에서 동시에 조회한다. (별도 트랜잭션 -> 커밋된 데이터만 보인다)
+     */
+    @Override
+    public List<MemberTeamDto> searchByUsernames(Collection<String> usernames, boolean parallel) {
+        if (parallel) {
+            return InLists.fetchChunkedParallel(usernames, this::searchByUsernameChunk, parallelChunkExecutor);
+        }
+        return InLists.fetchChunked(usernames, this::searchByUsernameChunk);
+    }
+
+    private List<MemberTeamDto> searchByUsernameChunk(List<String> usernames) {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.username.in(usernames))
+                .fetch();
+    }
+
+    @Override
+    public CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, String cursor, int size) {
+        return searchByCursor(condition, MemberCursor.SortKey.ID, cursor, size);
+    }
+
+    /**
+     * 커서(keyset, seek) 페이징
+     * offset 방식은 앞의 row 를 모두 읽고 버리기 때문에 뒤 페이지로 갈수록 느려진다.
+     * (정렬키, member_id) 로 where 조건을 걸어 인덱스에서 바로 시작 위치를 찾기 때문에 몇번째 페이지든 비용이 같다.
+     * size + 1 건을 조회해서 다음(이전) 페이지 존재 여부를 판단한다.
+     * sortKey 는 첫 페이지에만 사용되고, 이후에는 cursor 에 담긴 정렬키를 따른다.
+     * 참고 : username 이 null 인 회원은 비교 조건에 걸리지 않아 USERNAME 정렬시 조회되지 않는다.
+     * size 는 페이징(max-page-size)과 같이 MAX_CURSOR_SIZE 로 제한하고, 1 보다 작으면 400
+     */
+    @Override
+    public CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, MemberCursor.SortKey sortKey, String cursor, int size) {
+        if (size < 1) {
+            throw new BadRequestException("size 는 1 이상이어야 합니다. size=" + size);
+        }
+        size = Math.min(size, MAX_CURSOR_SIZE);
+
+        MemberCursor current = hasText(cursor) ? MemberCursor.decode(cursor) : null;
+        MemberCursor.SortKey key = current != null ? current.getSortKey() : sortKey;
+        boolean backward = current != null && current.isBackward();
+
+        List<MemberTeamDto> rows = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()),
+                        seek(key, current)
+                )
+                .orderBy(cursorOrder(key, backward ? Order.DESC : Order.ASC))
+                .limit(size + 1)
+                .fetch();
+
+        boolean hasMore = rows.size() > size;
+        List<MemberTeamDto> content = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+        if (backward) {
+            //이전 페이지는 역순으로 조회했기 때문에 다시 뒤집어 준다.
+            Collections.reverse(content);
+        }
+
+        boolean hasNext = backward || hasMore;
+        boolean hasPrevious = backward ? hasMore : current != null;
+        if (content.isEmpty()) {
+            return new CursorPage<>(content, size, null, null);
+        }
+
+        String prevCursor = hasPrevious
+                ? MemberCursor.of(key, MemberCursor.Direction.PREV, content.get(0)).encode()
+                : null;
+        String nextCursor = hasNext
+                ? MemberCursor.of(key, MemberCursor.Direction.NEXT, content.get(content.size() - 1)).encode()
+                : null;
+        return new CursorPage<>(content, size, prevCursor, nextCursor);
+    }
+
+    //(정렬키, member_id) 기준으로 cursor 이후(NEXT) 또는 이전(PREV) row 만 조회
+    private BooleanExpression seek(MemberCursor.SortKey key, MemberCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+
+        boolean next = !cursor.isBackward();
+        Long memberId = cursor.getMemberId();
+        BooleanExpression idSeek = next ? member.id.gt(memberId) : member.id.lt(memberId);
+
+        switch (key) {
+            case USERNAME: {
+                String username = cursor.getValue();
+                BooleanExpression keySeek = next ? member.username.gt(username) : member.username.lt(username);
+                return keySeek.or(member.username.eq(username).and(idSeek));
+            }
+            case AGE: {
+                int age = Integer.parseInt(cursor.getValue());
+                BooleanExpression keySeek = next ? member.age.gt(age) : member.age.lt(age);
+                return keySeek.or(member.age.eq(age).and(idSeek));
+            }
+            default:
+                return idSeek;
+        }
+    }
+
+    private OrderSpecifier<?>[] cursorOrder(MemberCursor.SortKey key, Order order) {
+        OrderSpecifier<Long> idOrder = new OrderSpecifier<>(order, member.id);
+
+        switch (key) {
+            case USERNAME:
+                return new OrderSpecifier<?>[]{new OrderSpecifier<>(order, member.username), idOrder};
+            case AGE:
+                return new OrderSpecifier<?>[]{new OrderSpecifier<>(order, member.age), idOrder};
+            default:
+                return new OrderSpecifier<?>[]{idOrder};
+        }
+    }
+
+    //검색 조건별 count 캐시 (CountCache 참고)
+    private long count(MemberSearchCondition condition) {
+        return countCache.get(condition.normalize(), () -> {
+            Long total = countQuery(condition).fetchOne();
+            return total == null ? 0 : total;
+        });
+    }
+
+    /**
+     * count 쿼리 최적화
+     * member -> team 은 ManyToOne 이라 left join 을 해도 row 수가 변하지 않는다.
+     * 그래서 team 조건이 없으면 join 자체를 생략한다.
+     * team 조건이 있으면 team 이 없는 member 는 어차피 제외되므로 inner join 으로 바꿔도 결과가 같다.
+     * -> DB 가 조인 순서를 바꿔서 team.name 인덱스(idx_team_name)부터 조회할 수 있다.
+     */
+    private JPAQuery<Long> countQuery(MemberSearchCondition condition) {
+        JPAQuery<Long> query = queryFactory
+                .select(member.count())
+                .from(member);
+
+        if (hasText(condition.getTeamName())) {
+            query.join(member.team, team);
+        }
 
-//        return PageableExecutionUtils.getPage(content, pageable, () -> countQuery.fetch().size());
-//        return PageableExecutionUtils.getPage(content, pageable, countQuery.fetch()::size);
-        return new PageImpl<>(content, pageable, countQuery.fetch().size());
+        return query
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
     }
 
     //Predicate 반환값 보다 BooleanExpression 하는게 더 좋을 듯하다, BooleanExpression 는 and, or 로 체이닝이 가능하다.
@@ -182,6 +701,10 @@ public class MemberQuerydslRepositoryImpl implements MemberQuerydslRepositoryCus
         return hasText(teamName) ? team.name.eq(teamName) : null;
     }
 
+    private BooleanExpression memberTeamNameEq(String teamName) {
+        return hasText(teamName) ? member.teamName.eq(teamName) : null;
+    }
+
     private BooleanExpression ageGoe(Integer ageGoe) {
         return ageGoe != null ? member.age.goe(ageGoe) : null;
     }
@@ -0,0 +1,112 @@
+package study.data_querydsl_jpa.repository_querydsl;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import study.data_querydsl_jpa.dto.MemberSearchCondition;
+
+import javax.persistence.Query;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * MemberSearchCondition 검색용 JPQL 캐시
+ * <p>
+ * Querydsl 은 호출할 때마다 표현식 트리를 새로 만들고 JPQL 문자열로 다시 직렬화한다.
+ * 그런데 검색 조건은 username, teamName, ageGoe, ageLoe 4개의 있다/없다 조합 -> 최대 16가지 모양(shape) 뿐이다.
+ * shape 별로 Querydsl 쿼리를 한번만 직렬화해서 JPQL 을 캐시해 두고, 호출 시에는 파라미터만 바인딩한다.
+ * JPQL 문자열이 항상 같으므로 하이버네이트 쿼리 플랜 캐시도 그대로 재사용된다.
+ * <p>
+ * where 조건은 queryBuilder 가 만든 Querydsl 쿼리 그대로다. (조건 순서는 username, teamName, ageGoe, ageLoe 이어야 한다 -> bind 순서)
+ */
+public final class MemberSearchJpql {
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+    private static final int SHAPES = 1 << 4;
+
+    private final Function<MemberSearchCondition, ? extends JPAQuery<?>> queryBuilder;
+    private final AtomicReferenceArray<String> queries = new AtomicReferenceArray<>(SHAPES);
+
+    public MemberSearchJpql(Function<MemberSearchCondition, ? extends JPAQuery<?>> queryBuilder) {
+        this.queryBuilder = queryBuilder;
+    }
+
+    /**
+     * 조건이 있는 항목을 비트로 표현 (0 ~ 15)
+     */
+    public static int shapeOf(MemberSearchCondition condition) {
+        int shape = 0;
+        if (hasText(condition.getUsername())) {
+            shape |= USERNAME;
+        }
+        if (hasText(condition.getTeamName())) {
+            shape |= TEAM_NAME;
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+        }
+        return shape;
+    }
+
+    /**
+     * condition 과 같은 shape 의 JPQL (shape 마다 처음 한번만 Querydsl 로 직렬화한다)
+     * 같은 shape 을 동시에 만들어도 결과 문자열이 같으므로 먼저 들어간 값을 그대로 쓴다.
+     */
+    public String jpql(MemberSearchCondition condition) {
+        int shape = shapeOf(condition);
+        String jpql = queries.get(shape);
+        if (jpql == null) {
+            jpql = queryBuilder.apply(placeholder(shape)).toString();
+            queries.compareAndSet(shape, null, jpql);
+            jpql = queries.get(shape);
+        }
+        return jpql;
+    }
+
+    /**
+     * Querydsl 이 붙인 순서(?1 ~ ?n)대로 shape 에 포함된 파라미터만 바인딩
+     */
+    public static <Q extends Query> Q bind(Q query, MemberSearchCondition condition) {
+        int position = 1;
+        if (hasText(condition.getUsername())) {
+            query.setParameter(position++, condition.getUsername());
+        }
+        if (hasText(condition.getTeamName())) {
+            query.setParameter(position++, condition.getTeamName());
+        }
+        if (condition.getAgeGoe() != null) {
+            query.setParameter(position++, condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() != null) {
+            query.setParameter(position, condition.getAgeLoe());
+        }
+        return query;
+    }
+
+    /**
+     * shape 에 있는 항목만 채운 조건 - 직렬화용이라 값 자체는 쓰이지 않는다.
+     * Querydsl 은 같은 값에 같은 번호를 재사용하므로 (ageGoe = ageLoe 이면 둘다 ?1) 항목마다 다른 값을 넣는다.
+     */
+    private static MemberSearchCondition placeholder(int shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if ((shape & USERNAME) != 0) {
+            condition.setUsername("username");
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            condition.setTeamName("teamName");
+        }
+        if ((shape & AGE_GOE) != 0) {
+            condition.setAgeGoe(0);
+        }
+        if ((shape & AGE_LOE) != 0) {
+            condition.setAgeLoe(1);
+        }
+        return condition;
+    }
+}
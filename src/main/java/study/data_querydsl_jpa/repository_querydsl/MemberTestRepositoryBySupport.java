@@ -2,14 +2,17 @@ package study.data_querydsl_jpa.repository_querydsl;
 
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import study.data_querydsl_jpa.dto.MemberSearchCondition;
 import study.data_querydsl_jpa.dto.MemberTeamDto;
 import study.data_querydsl_jpa.dto.QMemberTeamDto;
 import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.repository_querydsl.support.PagingStrategy;
 import study.data_querydsl_jpa.repository_querydsl.support.Querydsl4RepositorySupport;
 
 import java.util.List;
@@ -59,7 +62,8 @@ public class MemberTestRepositoryBySupport extends Querydsl4RepositorySupport {
         List<Member> content = getQuerydsl().applyPagination(pageable, query)
                 .fetch();
 
-        return PageableExecutionUtils.getPage(content, pageable, query::fetchCount);
+        //applyPagination 이 query 에 offset, limit 을 적용하므로 count 쿼리는 따로 만든다.
+        return PageableExecutionUtils.getPage(content, pageable, () -> fetchCount(countQuery(getQueryFactory(), condition)));
     }
 
     /**
@@ -101,12 +105,44 @@ public class MemberTestRepositoryBySupport extends Querydsl4RepositorySupport {
 
     /**
      * support 방식 - 2차 -> 카운트 쿼리 최적화
-     * 현재 v6 는 스택오버플로우 익셉션 발생중, Member Entity 에 JsonIgnore 적용하면 문제는 없긴한데 다른 방법 찾는 중.
+     * 엔티티(Member)를 그대로 반환하면 Member <-> Team 양방향 참조로 json 변환시 스택오버플로우가 발생해서 dto 로 조회하도록 변경.
      */
     public Page<MemberTeamDto> applyPaginationImproved(MemberSearchCondition condition, Pageable pageable) {
+        return applyPaginationImproved(condition, pageable, PagingStrategy.OFFSET);
+    }
+
+    /**
+     * PagingStrategy 로 content 쿼리 실행 방식을 선택한다.
+     * DEFERRED_JOIN -> 정렬/offset 은 member.id 만 조회하는 쿼리에서 처리하고, 찾은 id 로 MemberTeamDto 컬럼을 조회.
+     */
+    public Page<MemberTeamDto> applyPaginationImproved(MemberSearchCondition condition, Pageable pageable, PagingStrategy strategy) {
+        if (strategy == PagingStrategy.DEFERRED_JOIN) {
+            return applyDeferredPagination(pageable
+                    , queryFactory -> idQuery(queryFactory, condition)
+                    , (queryFactory, ids) -> queryFactory
+                            .select(new QMemberTeamDto(
+                                    member.id,
+                                    member.username,
+                                    member.age,
+                                    team.id,
+                                    team.name))
+                            .from(member)
+                            .leftJoin(member.team, team)
+                            .where(member.id.in(ids))
+                    , MemberTeamDto::getMemberId
+                    , queryFactory -> countQuery(queryFactory, condition)
+                    , condition.normalize()
+            );
+        }
 
         return applyPagination(pageable, contentQuery -> contentQuery
-                        .selectFrom(member)
+                        .select(new QMemberTeamDto(
+                                member.id,
+                                member.username,
+                                member.age,
+                                team.id,
+                                team.name))
+                        .from(member)
                         .leftJoin(member.team, team)
                         .where(
                                 usernameEq(condition.getUsername()),
@@ -115,8 +151,23 @@ public class MemberTestRepositoryBySupport extends Querydsl4RepositorySupport {
                                 ageLoe(condition.getAgeLoe())
                         )
 
-                , countQuery -> countQuery
-                        .select(member.id)
+                , queryFactory -> countQuery(queryFactory, condition)
+                , condition.normalize()
+        );
+    }
+
+    /**
+     * support 방식 - 3차 -> content, count 쿼리 병렬 실행
+     */
+    public Page<MemberTeamDto> applyPaginationParallel(MemberSearchCondition condition, Pageable pageable) {
+
+        return applyPaginationParallel(pageable, contentQuery -> contentQuery
+                        .select(new QMemberTeamDto(
+                                member.id,
+                                member.username,
+                                member.age,
+                                team.id,
+                                team.name))
                         .from(member)
                         .leftJoin(member.team, team)
                         .where(
@@ -125,9 +176,75 @@ public class MemberTestRepositoryBySupport extends Querydsl4RepositorySupport {
                                 ageGoe(condition.getAgeGoe()),
                                 ageLoe(condition.getAgeLoe())
                         )
+
+                , queryFactory -> countQuery(queryFactory, condition)
+        );
+    }
+
+    /**
+     * support 방식 - Slice -> count 쿼리 없이 다음 페이지 존재 여부만
+     */
+    public Slice<MemberTeamDto> applySlice(MemberSearchCondition condition, Pageable pageable) {
+
+        return applySlice(pageable, contentQuery -> contentQuery
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
         );
     }
 
+    //select member.id - count 쿼리와 마찬가지로 team 조건이 없으면 join 생략
+    private JPAQuery<Long> idQuery(JPAQueryFactory queryFactory, MemberSearchCondition condition) {
+        JPAQuery<Long> query = queryFactory
+                .select(member.id)
+                .from(member);
+
+        if (hasText(condition.getTeamName())) {
+            query.leftJoin(member.team, team);
+        }
+
+        return query
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
+    /**
+     * select count(member.id) - team 조건이 없으면 left join 을 생략한다.
+     * team 조건이 있으면 team 이 없는 member 는 어차피 제외되므로 inner join -> team.name 인덱스부터 조회할 수 있다.
+     */
+    private JPAQuery<Long> countQuery(JPAQueryFactory queryFactory, MemberSearchCondition condition) {
+        JPAQuery<Long> query = queryFactory
+                .select(member.count())
+                .from(member);
+
+        if (hasText(condition.getTeamName())) {
+            query.join(member.team, team);
+        }
+
+        return query
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
     private BooleanExpression usernameEq(String username) {
         return hasText(username) ? member.username.eq(username) : null;
     }
@@ -0,0 +1,162 @@
+package study.data_querydsl_jpa.repository_querydsl.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 검색 조건별 total count 캐시
+ * 회원/팀 데이터는 조회에 비해 변경이 드물기 때문에 같은 조건의 count 는 재사용한다.
+ * <p>
+ * - key : 정규화된 검색 조건 (ex. MemberSearchCondition#normalize)
+ * - ttl 이 지나거나, maxSize 를 넘으면(가장 오래 안 쓴 것부터) 제거
+ * - Member, Team 이 insert/update/delete 되면 전부 무효화 (CountCacheInvalidator)
+ * - 현재 트랜잭션에서 Member, Team 을 변경했다면 커밋 전 데이터로 계산된 count 이므로 캐시에 넣지 않는다.
+ * - 벌크 연산(JPQL update/delete)은 이벤트가 발생하지 않으므로 실행한 쪽에서 invalidateByUpdate 를 호출한다. (bulkAgePlus 참고)
+ *   호출하지 않는 벌크 연산은 ttl 까지 이전 값이 보일 수 있다.
+ * - 무효화할 때마다 generation 을 올린다. count 쿼리 실행 전에 읽은 generation 이 그 사이에 바뀌었으면 결과를 캐시에 넣지 않는다.
+ *   -> 다른 트랜잭션의 커밋(afterCompletion 무효화) 전에 시작한 count 가 무효화 이후에 이전 값을 다시 넣지 못한다.
+ */
+@Component
+public class CountCache {
+
+    private static final Object DIRTY_TRANSACTION = CountCache.class.getName() + ".DIRTY_TRANSACTION";
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Map<Object, Entry> entries;
+    //entries 의 lock 안에서만 읽고 쓴다.
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder stalePutsSkipped = new LongAdder();
+
+    public CountCache(@Value("${paging.count-cache.enabled:true}") boolean enabled,
+                      @Value("${paging.count-cache.ttl-seconds:60}") long ttlSeconds,
+                      @Value("${paging.count-cache.max-size:1000}") int maxSize) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public long get(Object key, LongSupplier countQuery) {
+        if (!enabled || key == null || isDirtyTransaction()) {
+            bypasses.increment();
+            return countQuery.getAsLong();
+        }
+
+        long now = System.nanoTime();
+        long loadGeneration;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.loadedAt < ttlNanos) {
+                hits.increment();
+                return entry.count;
+            }
+            loadGeneration = generation;
+        }
+
+        misses.increment();
+        long count = countQuery.getAsLong();
+        synchronized (entries) {
+            if (generation != loadGeneration) {
+                //count 쿼리 실행 중에 무효화됨 -> 무효화 전 데이터로 계산했을 수 있으므로 결과만 돌려준다.
+                stalePutsSkipped.increment();
+                return count;
+            }
+            entries.put(key, new Entry(count, now));
+        }
+        return count;
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            //비어 있어도 올린다. (실행 중인 count 결과를 막아야 한다)
+            generation++;
+            if (entries.isEmpty()) {
+                return;
+            }
+            entries.clear();
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * count 대상 데이터가 변경되었을 때 - 캐시를 비우고 현재 트랜잭션에서는 캐시를 쓰지 않는다. (커밋 후 한번 더 비움)
+     * 하이버네이트 이벤트가 없는 벌크 연산은 직접 호출한다.
+     */
+    public void invalidateByUpdate() {
+        markTransactionDirty();
+        invalidateAll();
+    }
+
+    /**
+     * 현재 트랜잭션에서 count 대상 데이터가 변경되었음을 표시한다. (트랜잭션이 끝나면 자동으로 해제)
+     */
+    public void markTransactionDirty() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(DIRTY_TRANSACTION)) {
+            TransactionSynchronizationManager.bindResource(DIRTY_TRANSACTION, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DIRTY_TRANSACTION);
+                    //커밋 전에 다른 트랜잭션이 이전 값으로 다시 캐시했을 수 있으므로 한번 더 비운다.
+                    invalidateAll();
+                }
+            });
+        }
+    }
+
+    private boolean isDirtyTransaction() {
+        return TransactionSynchronizationManager.hasResource(DIRTY_TRANSACTION);
+    }
+
+    public Map<String, Object> snapshot() {
+        long hit = hits.sum();
+        long miss = misses.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        synchronized (entries) {
+            result.put("size", entries.size());
+        }
+        result.put("hits", hit);
+        result.put("misses", miss);
+        result.put("hitRate", hit + miss == 0 ? 0 : (double) hit / (hit + miss));
+        result.put("bypasses", bypasses.sum());
+        result.put("evictions", evictions.sum());
+        result.put("invalidations", invalidations.sum());
+        result.put("stalePutsSkipped", stalePutsSkipped.sum());
+        return result;
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long loadedAt;
+
+        private Entry(long count, long loadedAt) {
+            this.count = count;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
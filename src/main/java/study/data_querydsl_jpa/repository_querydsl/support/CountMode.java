@@ -0,0 +1,11 @@
+package study.data_querydsl_jpa.repository_querydsl.support;
+
+/**
+ * 페이징 total count 계산 방식
+ * EXACT     : select count 쿼리 (기본)
+ * ESTIMATED : 데이터가 임계치 이상이면 DB 통계(row 수 추정치, 컬럼 selectivity)로 추정 -> EstimatedPage.totalEstimated = true
+ */
+public enum CountMode {
+    EXACT,
+    ESTIMATED
+}
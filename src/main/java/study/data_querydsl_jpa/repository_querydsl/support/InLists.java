@@ -0,0 +1,65 @@
+package study.data_querydsl_jpa.repository_querydsl.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * IN 절 조회 유틸
+ * <p>
+ * in (?, ?, ...) 는 파라미터 개수마다 다른 SQL 이 되므로 컬렉션 크기가 다양하면
+ * 하이버네이트 쿼리 플랜 캐시, DB statement 캐시가 금방 가득 찬다. 또 DB 마다 파라미터 개수 제한이 있다.
+ * 1. hibernate.query.in_clause_parameter_padding=true -> 파라미터 개수를 2의 제곱수로 맞춘다. (마지막 값을 반복)
+ * 2. 여기서 중복을 제거하고 MAX_CHUNK_SIZE(2의 제곱수) 단위로 나눠서 조회 후 합친다.
+ * -> 컬렉션 크기와 상관없이 SQL 모양은 1, 2, 4 ... 512 개 파라미터 10가지뿐이다.
+ */
+public final class InLists {
+
+    public static final int MAX_CHUNK_SIZE = 512;
+
+    private InLists() {
+    }
+
+    /**
+     * 중복 제거(순서 유지) 후 chunkSize 단위로 나눈다.
+     */
+    public static <T> List<List<T>> chunks(Collection<T> values, int chunkSize) {
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            chunks.add(distinct.subList(from, Math.min(from + chunkSize, distinct.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * chunk 별로 순서대로 조회해서 합친다.
+     */
+    public static <T, R> List<R> fetchChunked(Collection<T> values, Function<List<T>, List<R>> query) {
+        List<R> result = new ArrayList<>();
+        for (List<T> chunk : chunks(values, MAX_CHUNK_SIZE)) {
+            result.addAll(query.apply(chunk));
+        }
+        return result;
+    }
+
+    /**
+     * chunk 별 조회를 ParallelChunkExecutor 스레드풀에서 동시에 실행하고 합친다.
+     * 각 chunk 는 별도의 읽기 전용 트랜잭션에서 실행되므로 엔티티를 조회하면 준영속 상태로 반환된다. -> dto 조회에 사용
+     */
+    public static <T, R> List<R> fetchChunkedParallel(Collection<T> values, Function<List<T>, List<R>> query,
+                                                      ParallelChunkExecutor executor) {
+        List<List<T>> chunks = chunks(values, MAX_CHUNK_SIZE);
+        if (chunks.size() < 2) {
+            return fetchChunked(values, query);
+        }
+
+        List<R> result = new ArrayList<>();
+        for (List<R> rows : executor.executeAll(chunks, query)) {
+            result.addAll(rows);
+        }
+        return result;
+    }
+}
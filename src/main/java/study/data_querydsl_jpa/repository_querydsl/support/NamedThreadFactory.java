@@ -0,0 +1,24 @@
+package study.data_querydsl_jpa.repository_querydsl.support;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 스레드 이름 prefix-1, prefix-2 ... (데몬 스레드, 스레드 덤프에서 어느 풀인지 구분용)
+ */
+class NamedThreadFactory implements ThreadFactory {
+
+    private final String prefix;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    NamedThreadFactory(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, prefix + "-" + sequence.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,48 @@
+package study.data_querydsl_jpa.repository_querydsl.support;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 페이징 쿼리 실행 지표
+ * content / count 쿼리를 병렬로 실행해서 줄어든 시간(saved) = (content 시간 + count 시간) - 실제 걸린 시간
+ */
+@Component
+public class PagingMetrics {
+
+    private final LongAdder parallelPages = new LongAdder();
+    private final LongAdder sequentialFallbacks = new LongAdder();
+    private final LongAdder countTimeouts = new LongAdder();
+    private final LongAdder savedNanos = new LongAdder();
+    private final LongAdder elapsedNanos = new LongAdder();
+
+    public void recordParallel(long contentNanos, long countNanos, long elapsed) {
+        parallelPages.increment();
+        elapsedNanos.add(elapsed);
+        savedNanos.add(Math.max(0, contentNanos + countNanos - elapsed));
+    }
+
+    public void recordFallback() {
+        sequentialFallbacks.increment();
+    }
+
+    public void recordTimeout() {
+        countTimeouts.increment();
+    }
+
+    public Map<String, Object> snapshot() {
+        long pages = parallelPages.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("parallelPages", pages);
+        result.put("sequentialFallbacks", sequentialFallbacks.sum());
+        result.put("countTimeouts", countTimeouts.sum());
+        result.put("savedMillis", TimeUnit.NANOSECONDS.toMillis(savedNanos.sum()));
+        result.put("avgSavedMillis", pages == 0 ? 0 : (double) TimeUnit.NANOSECONDS.toMicros(savedNanos.sum()) / pages / 1000);
+        result.put("avgElapsedMillis", pages == 0 ? 0 : (double) TimeUnit.NANOSECONDS.toMicros(elapsedNanos.sum()) / pages / 1000);
+        return result;
+    }
+}
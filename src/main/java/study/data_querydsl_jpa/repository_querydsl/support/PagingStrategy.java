@@ -0,0 +1,12 @@
+package study.data_querydsl_jpa.repository_querydsl.support;
+
+/**
+ * 페이징 content 쿼리 실행 방식
+ * OFFSET        : select 컬럼 전체 + order by + offset/limit 를 한번에 (기존 방식)
+ * DEFERRED_JOIN : 1. 조건 + 정렬 + offset/limit 로 id 만 조회 -> 2. 해당 id 들만 컬럼 전체 조회 (late row lookup)
+ *                 offset 이 클수록 버려지는 row 에 대해 id 만 읽기 때문에 유리하다.
+ */
+public enum PagingStrategy {
+    OFFSET,
+    DEFERRED_JOIN
+}
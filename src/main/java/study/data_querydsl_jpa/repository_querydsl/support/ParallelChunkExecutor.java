@@ -0,0 +1,139 @@
+package study.data_querydsl_jpa.repository_querydsl.support;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 같은 쿼리를 입력(IN 절 chunk)만 바꿔서 여러번 실행할 때 동시에 실행한다. (InLists.fetchChunkedParallel)
+ * ParallelCountExecutor 와 같이 입력마다 별도의 읽기 전용 트랜잭션에서 실행하고, 스레드풀이 가득 차면 호출한 스레드에서 실행한다.
+ * <p>
+ * 스레드풀과 지표(/stats/in-list)는 ParallelCountExecutor 와 따로 둔다.
+ * -> chunk 조회가 페이징 count 스레드를 차지하거나 /stats/paging 지표에 섞이지 않는다.
+ * timeout 은 chunk 하나가 아니라 executeAll 전체에 적용한다. (chunk 가 N 개여도 최대 timeout 까지만 기다린다)
+ */
+@Component
+public class ParallelChunkExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long timeoutMillis;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder parallelChunks = new LongAdder();
+    private final LongAdder sequentialChunks = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public ParallelChunkExecutor(PlatformTransactionManager transactionManager,
+                                 @Value("${in-list.parallel.pool-size:4}") int poolSize,
+                                 @Value("${in-list.parallel.queue-capacity:16}") int queueCapacity,
+                                 @Value("${in-list.parallel.timeout-ms:3000}") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory("in-list-chunk"), new ThreadPoolExecutor.AbortPolicy());
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis + 999)));
+    }
+
+    /**
+     * 입력 하나당 query 한번씩 동시에 실행하고 입력 순서대로 결과를 반환한다.
+     * 스레드풀이 가득 차서 제출하지 못한 입력은 호출한 스레드에서 실행한다.
+     * 시작부터 timeout 이 지나면 남은 입력은 취소하고 QueryTimeoutException
+     */
+    public <T, R> List<R> executeAll(List<T> inputs, Function<T, R> query) {
+        executions.increment();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<Future<R>> futures = new ArrayList<>(inputs.size());
+        List<R> results = new ArrayList<>(inputs.size());
+        try {
+            for (T input : inputs) {
+                try {
+                    futures.add(executor.submit(() -> readOnlyTransaction.execute(status -> query.apply(input))));
+                    parallelChunks.increment();
+                } catch (RejectedExecutionException e) {
+                    sequentialChunks.increment();
+                    futures.add(null);
+                }
+            }
+            for (int i = 0; i < inputs.size(); i++) {
+                T input = inputs.get(i);
+                Future<R> future = futures.get(i);
+                if (future == null) {
+                    checkDeadline(deadline);
+                    results.add(readOnlyTransaction.execute(status -> query.apply(input)));
+                } else {
+                    results.add(await(future, deadline));
+                }
+            }
+        } catch (RuntimeException e) {
+            futures.stream().filter(Objects::nonNull).forEach(future -> future.cancel(true));
+            throw e;
+        }
+        return results;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("executions", executions.sum());
+        result.put("parallelChunks", parallelChunks.sum());
+        result.put("sequentialChunks", sequentialChunks.sum());
+        result.put("timeouts", timeouts.sum());
+        return result;
+    }
+
+    private void checkDeadline(long deadline) {
+        if (deadline - System.nanoTime() <= 0) {
+            throw timeout(null);
+        }
+    }
+
+    //남은 시간만큼만 기다린다.
+    private <R> R await(Future<R> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw timeout(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for chunk query", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("chunk query failed", cause);
+        }
+    }
+
+    private QueryTimeoutException timeout(TimeoutException cause) {
+        timeouts.increment();
+        return new QueryTimeoutException("chunk queries timed out after " + timeoutMillis + "ms", cause);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,128 @@
+package study.data_querydsl_jpa.repository_querydsl.support;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * content 쿼리와 count 쿼리를 동시에 실행한다.
+ * count 쿼리는 별도 스레드에서 새로운 읽기 전용 트랜잭션(= 별도 커넥션, 영속성 컨텍스트)으로 실행하고,
+ * content 쿼리는 호출한 스레드에서 그대로 실행한다. -> 페이지 응답시간이 두 쿼리의 합이 아니라 둘 중 긴 쪽이 된다.
+ * <p>
+ * 주의
+ * 1. count 는 다른 트랜잭션이라 호출한 트랜잭션에서 아직 커밋하지 않은 변경은 보이지 않는다.
+ * 2. 커넥션을 하나 더 사용하므로 풀 사이즈는 커넥션 풀보다 작게 잡는다.
+ * 3. 스레드풀 + 대기큐가 가득 차면 예외 대신 기존처럼 순차 실행한다.
+ * 4. timeout 을 넘기면 QueryTimeoutException, 트랜잭션 timeout 으로 DB 쿼리도 같이 취소된다.
+ * <p>
+ * IN 절 chunk 동시 조회는 ParallelChunkExecutor 가 별도 스레드풀, 지표로 실행한다.
+ */
+@Component
+public class ParallelCountExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final PagingMetrics metrics;
+    private final long timeoutMillis;
+
+    public ParallelCountExecutor(PlatformTransactionManager transactionManager,
+                                 PagingMetrics metrics,
+                                 @Value("${paging.parallel-count.pool-size:4}") int poolSize,
+                                 @Value("${paging.parallel-count.queue-capacity:16}") int queueCapacity,
+                                 @Value("${paging.parallel-count.timeout-ms:3000}") long timeoutMillis) {
+        this.metrics = metrics;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory("paging-count"), new ThreadPoolExecutor.AbortPolicy());
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis + 999)));
+    }
+
+    public <T> Page<T> getPage(Pageable pageable, Supplier<List<T>> contentQuery, LongSupplier countQuery) {
+        long start = System.nanoTime();
+
+        Future<CountResult> countFuture;
+        try {
+            countFuture = executor.submit(() -> readOnlyTransaction.execute(status -> {
+                long countStart = System.nanoTime();
+                long count = countQuery.getAsLong();
+                return new CountResult(count, System.nanoTime() - countStart);
+            }));
+        } catch (RejectedExecutionException e) {
+            metrics.recordFallback();
+            List<T> content = contentQuery.get();
+            return new PageImpl<>(content, pageable, countQuery.getAsLong());
+        }
+
+        long contentStart = System.nanoTime();
+        List<T> content;
+        try {
+            content = contentQuery.get();
+        } catch (RuntimeException e) {
+            countFuture.cancel(true);
+            throw e;
+        }
+        long contentNanos = System.nanoTime() - contentStart;
+
+        CountResult countResult = await(countFuture);
+        metrics.recordParallel(contentNanos, countResult.nanos, System.nanoTime() - start);
+
+        return new PageImpl<>(content, pageable, countResult.count);
+    }
+
+    private <R> R await(Future<R> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            metrics.recordTimeout();
+            throw new QueryTimeoutException("query timed out after " + timeoutMillis + "ms", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for query", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("query failed", cause);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static class CountResult {
+        private final long count;
+        private final long nanos;
+
+        private CountResult(long count, long nanos) {
+            this.count = count;
+            this.nanos = nanos;
+        }
+    }
+}
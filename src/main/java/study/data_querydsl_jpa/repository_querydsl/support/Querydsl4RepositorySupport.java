@@ -3,22 +3,30 @@ package study.data_querydsl_jpa.repository_querydsl.support;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.Wildcard;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
 import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.querydsl.SimpleEntityPathResolver;
-import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
@@ -27,7 +35,8 @@ import java.util.function.Function;
  * @author
  * @see org.springframework.data.jpa.repository.support.QuerydslRepositorySupport
  * <p>
- * TODO : return 부분 PageableExecutionUtils 이 사용을 권장하지 않아 다른 방법으로 코드를 변경해야 함.
+ * 페이징 : deprecated 된 fetchCount() 대신 select count 쿼리를 직접 날리고,
+ * PageableExecutionUtils(org.springframework.data.support) 로 count 쿼리 생략이 가능한 경우(첫 페이지, 마지막 페이지) 생략한다.
  */
 @Repository
 public abstract class Querydsl4RepositorySupport {
@@ -35,6 +44,8 @@ public abstract class Querydsl4RepositorySupport {
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private ParallelCountExecutor parallelCountExecutor;
+    private CountCache countCache;
 
     //QuerydslRepository support 와 동일
     public Querydsl4RepositorySupport(Class<?> domainClass) {
@@ -55,6 +66,16 @@ public abstract class Querydsl4RepositorySupport {
         this.queryFactory = new JPAQueryFactory(entityManager);
     }
 
+    @Autowired(required = false)
+    public void setParallelCountExecutor(ParallelCountExecutor parallelCountExecutor) {
+        this.parallelCountExecutor = parallelCountExecutor;
+    }
+
+    @Autowired(required = false)
+    public void setCountCache(CountCache countCache) {
+        this.countCache = countCache;
+    }
+
     @PostConstruct
     public void validate() {
         Assert.notNull(entityManager, "EntityManager must not be null!");
@@ -82,16 +103,117 @@ public abstract class Querydsl4RepositorySupport {
         return getQueryFactory().selectFrom(from);
     }
 
+    /**
+     * count 쿼리는 contentQuery 를 한번 더 만들어서 select 절만 count(*) 로 바꿔 사용한다.
+     */
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
         List<T> content = getQuerydsl().applyPagination(pageable, jpaQuery).fetch();
-        return PageableExecutionUtils.getPage(content, pageable, jpaQuery::fetchCount);
+        return PageableExecutionUtils.getPage(content, pageable, () -> countOf(contentQuery.apply(getQueryFactory())));
     }
 
-    protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery> countQuery) {
+    /**
+     * countQuery 는 select(xxx.count()) 형태로 작성한다. -> join 생략 등 카운트 쿼리 최적화 가능
+     */
+    protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery<Long>> countQuery) {
+        return applyPagination(pageable, contentQuery, countQuery, null);
+    }
+
+    /**
+     * countCacheKey 가 있으면 count 결과를 CountCache 에 캐시한다. (ex. MemberSearchCondition#normalize)
+     */
+    protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery<Long>> countQuery, Object countCacheKey) {
         JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
         List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
-        JPAQuery countResult = countQuery.apply(getQueryFactory());
-        return PageableExecutionUtils.getPage(content, pageable, countResult::fetchCount);
+        return PageableExecutionUtils.getPage(content, pageable, () -> cachedCount(countCacheKey, countQuery));
+    }
+
+    /**
+     * count 쿼리 없이 Slice 로 조회 (무한 스크롤 등 전체 건수가 필요 없는 경우)
+     * 페이지 사이즈 + 1 건을 조회해서 다음 페이지 존재 여부만 판단한다.
+     */
+    protected <T> Slice<T> applySlice(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        if (pageable.isUnpaged()) {
+            List<T> content = jpaQuery.fetch();
+            return new SliceImpl<>(content, pageable, false);
+        }
+
+        getQuerydsl().applySorting(pageable.getSort(), jpaQuery);
+        List<T> rows = jpaQuery
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1)
+                .fetch();
+
+        return Slices.of(rows, pageable);
+    }
+
+    /**
+     * 2단계 페이징 (PagingStrategy.DEFERRED_JOIN)
+     * idQuery     : 조건만 걸고 select(id) -> 여기에 정렬, offset, limit 적용
+     * contentQuery: 1단계에서 찾은 id 들로 실제 컬럼 조회 -> where(xxx.id.in(ids))
+     * in 절은 순서를 보장하지 않으므로 idExtractor 로 1단계 id 순서에 맞춰 다시 정렬한다.
+     * countCacheKey 가 null 이면 count 를 캐시하지 않는다.
+     */
+    protected <T> Page<T> applyDeferredPagination(Pageable pageable,
+                                                  Function<JPAQueryFactory, JPAQuery<Long>> idQuery,
+                                                  BiFunction<JPAQueryFactory, List<Long>, JPAQuery<T>> contentQuery,
+                                                  Function<T, Long> idExtractor,
+                                                  Function<JPAQueryFactory, JPAQuery<Long>> countQuery,
+                                                  Object countCacheKey) {
+        List<Long> ids = getQuerydsl().applyPagination(pageable, idQuery.apply(getQueryFactory())).fetch();
+
+        List<T> content = ids.isEmpty()
+                ? Collections.emptyList()
+                : orderByIds(contentQuery.apply(getQueryFactory(), ids).fetch(), ids, idExtractor);
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> cachedCount(countCacheKey, countQuery));
+    }
+
+    private <T> List<T> orderByIds(List<T> rows, List<Long> ids, Function<T, Long> idExtractor) {
+        Map<Long, T> rowById = new HashMap<>(rows.size() * 2);
+        for (T row : rows) {
+            rowById.put(idExtractor.apply(row), row);
+        }
+
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T row = rowById.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * content 쿼리와 count 쿼리를 동시에 실행 (opt-in)
+     * count 생략은 content 결과를 알아야 가능하므로 이 방식에서는 항상 count 쿼리를 실행한다.
+     * ParallelCountExecutor 가 없으면 순차 실행한다.
+     */
+    protected <T> Page<T> applyPaginationParallel(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery<Long>> countQuery) {
+        if (parallelCountExecutor == null) {
+            return applyPagination(pageable, contentQuery, countQuery);
+        }
+        return parallelCountExecutor.getPage(pageable,
+                () -> getQuerydsl().applyPagination(pageable, contentQuery.apply(getQueryFactory())).fetch(),
+                () -> fetchCount(countQuery.apply(getQueryFactory())));
+    }
+
+    private long cachedCount(Object countCacheKey, Function<JPAQueryFactory, JPAQuery<Long>> countQuery) {
+        if (countCache == null || countCacheKey == null) {
+            return fetchCount(countQuery.apply(getQueryFactory()));
+        }
+        return countCache.get(countCacheKey, () -> fetchCount(countQuery.apply(getQueryFactory())));
+    }
+
+    //select 절을 count(*) 로 바꿔서 카운트 -> 엔티티를 로딩하지 않는다.
+    protected long countOf(JPAQuery<?> query) {
+        return fetchCount(query.select(Wildcard.count));
+    }
+
+    protected long fetchCount(JPAQuery<Long> countQuery) {
+        Long count = countQuery.fetchOne();
+        return count == null ? 0 : count;
     }
 }
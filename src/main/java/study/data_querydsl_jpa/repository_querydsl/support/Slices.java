@@ -0,0 +1,27 @@
+package study.data_querydsl_jpa.repository_querydsl.support;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * count 쿼리 없는 Slice 유틸
+ * 페이지 사이즈 + 1 건을 조회한 결과로 다음 페이지 존재 여부를 판단한다.
+ */
+public final class Slices {
+
+    private Slices() {
+    }
+
+    /**
+     * rows 는 limit(pageSize + 1) 로 조회한 결과 -> 한 건이 더 있으면 hasNext 이고, 그 한 건은 잘라낸다.
+     */
+    public static <T> Slice<T> of(List<T> rows, Pageable pageable) {
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? new ArrayList<>(rows.subList(0, pageable.getPageSize())) : rows;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+}
@@ -0,0 +1,140 @@
+package study.data_querydsl_jpa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_querydsl_jpa.dto.MemberSearchCondition;
+import study.data_querydsl_jpa.dto.MemberTeamDto;
+import study.data_querydsl_jpa.repository_querydsl.MemberQuerydslJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 회원 검색 결과 내보내기
+ * 결과 건수와 상관없이 메모리를 일정하게 쓰도록 조회 결과를 한건씩 바로 응답에 쓴다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberExportService {
+
+    private static final int FETCH_SIZE = 500;
+    private static final byte NEW_LINE = '\n';
+    private static final String CSV_HEADER = "member_id,username,age,team_id,team_name";
+    private static final String CSV_QUERY = "select m.id, m.username, m.age, t.id, t.name" +
+            " from Member m left join m.team t" +
+            " order by m.id";
+
+    private final MemberQuerydslJpaRepository memberQuerydslJpaRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager em;
+
+    /**
+     * NDJSON(한 줄에 json 하나) 형식으로 쓴다.
+     *
+     * @return 쓴 row 수
+     */
+    public long writeNdjson(MemberSearchCondition condition, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(MemberTeamDto.class);
+
+        long rows = 0;
+        try (Stream<MemberTeamDto> stream = memberQuerydslJpaRepository.searchStream(condition, FETCH_SIZE)) {
+            Iterator<MemberTeamDto> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                out.write(writer.writeValueAsBytes(iterator.next()));
+                out.write(NEW_LINE);
+                if (++rows % FETCH_SIZE == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        return rows;
+    }
+
+    /**
+     * 전체 회원(+ 팀 이름)을 CSV 로 쓴다.
+     * findAll / fetch join 처럼 List 로 모으지 않고 ScrollableResults(FORWARD_ONLY) 로 한 row 씩 읽어서 바로 쓴다.
+     * - 엔티티가 아닌 스칼라 값만 조회 -> 영속성 컨텍스트에 엔티티가 쌓이지 않는다.
+     * - 그래도 FETCH_SIZE 마다 session.clear() 해서 세션 내부 상태가 커지지 않게 한다.
+     * 실제로 row 를 나눠 가져오는지는 드라이버의 fetch size 처리 방식에 따른다. (H2 서버 모드는 fetch size 단위로 가져온다)
+     *
+     * @return 쓴 row 수 (헤더 제외)
+     */
+    public long writeCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        Session session = em.unwrap(Session.class);
+
+        writer.write(CSV_HEADER);
+        writer.write(NEW_LINE);
+
+        long rows = 0;
+        ScrollableResults results = session.createQuery(CSV_QUERY)
+                .setReadOnly(true)
+                .setFetchSize(FETCH_SIZE)
+                .setCacheable(false)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            while (results.next()) {
+                Object[] row = results.get();
+                writeCsvRow(writer, row);
+                if (++rows % FETCH_SIZE == 0) {
+                    session.clear();
+                    writer.flush();
+                }
+                if (rows % 1_000_000 == 0) {
+                    log.info("member csv export progress rows={}", rows);
+                }
+            }
+        } finally {
+            results.close();
+        }
+        writer.flush();
+        return rows;
+    }
+
+    public long writeCsv(Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            return writeCsv(out);
+        }
+    }
+
+    private void writeCsvRow(Writer writer, Object[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvValue(row[i]));
+        }
+        writer.write(NEW_LINE);
+    }
+
+    //쉼표, 따옴표, 줄바꿈이 있으면 따옴표로 감싸고 따옴표는 두번 쓴다. (RFC 4180)
+    private String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
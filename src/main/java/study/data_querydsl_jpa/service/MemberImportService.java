@@ -0,0 +1,223 @@
+package study.data_querydsl_jpa.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_querydsl_jpa.dto.MemberImportResult;
+import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 회원 대량 등록 (CSV : username,age,team_name)
+ * 한 줄씩 읽어서 FLUSH_SIZE 줄마다 별도 트랜잭션으로 persist -> 커밋 후 clear() 한다.
+ * -> 파일 크기와 상관없이 영속성 컨텍스트 크기, 트랜잭션(undo log, 락) 크기가 일정
+ * - insert 는 hibernate.jdbc.batch_size 단위로 묶여서 나간다. (member_seq pooled-lo 로 id 도 블록 단위 할당)
+ * - 팀은 이름 -> id 캐시로 찾고 getReference 로 연결한다. (팀 조회 쿼리 없음, 없는 팀은 새로 만든다)
+ * - Member.ofTeamReference 로 만들어서 team.members 컬렉션을 로딩하지 않는다.
+ * <p>
+ * 전체가 한 트랜잭션이 아니다. (all-or-nothing 아님)
+ * - imported 는 커밋된 줄 수이다.
+ * - chunk 저장이 실패하면 그 chunk 만 롤백하고 import 를 멈춘다. 실패한 줄 범위는 errors 에 남는다.
+ *   -> 앞 chunk 는 이미 커밋되어 있으므로 실패한 chunk 의 첫 줄부터 다시 보내면 된다.
+ * - 호출한 쪽에 트랜잭션이 있어도 chunk 마다 새 트랜잭션(REQUIRES_NEW)으로 커밋한다.
+ */
+@Slf4j
+@Service
+public class MemberImportService {
+
+    private static final int FLUSH_SIZE = 1_000;
+    private static final int PROGRESS_INTERVAL = 100_000;
+    private static final String CSV_HEADER = "username,age,team_name";
+
+    private final EntityManager em;
+    private final TransactionTemplate chunkTransaction;
+
+    public MemberImportService(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public MemberImportResult importCsv(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        MemberImportResult result = new MemberImportResult();
+        Map<String, Long> teamIds = chunkTransaction.execute(status -> loadTeamIds());
+        long start = System.currentTimeMillis();
+
+        List<Row> chunk = new ArrayList<>(FLUSH_SIZE);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && line.trim().equalsIgnoreCase(CSV_HEADER))) {
+                continue;
+            }
+
+            List<String> values = parseCsvLine(line);
+            String error = validate(values);
+            if (error != null) {
+                result.skip(lineNumber, error);
+                continue;
+            }
+
+            String username = values.get(0).trim();
+            int age = Integer.parseInt(values.get(1).trim());
+            String teamName = values.size() > 2 ? values.get(2).trim() : "";
+            chunk.add(new Row(lineNumber, username, age, teamName));
+
+            if (chunk.size() == FLUSH_SIZE) {
+                if (!commit(chunk, teamIds, result)) {
+                    break;
+                }
+                chunk.clear();
+                if (result.getImported() % PROGRESS_INTERVAL == 0) {
+                    log.info("member import progress imported={} skipped={} elapsed={}ms",
+                            result.getImported(), result.getSkipped(), System.currentTimeMillis() - start);
+                }
+            }
+        }
+        if (!result.isAborted() && !chunk.isEmpty()) {
+            commit(chunk, teamIds, result);
+        }
+
+        result.finish(System.currentTimeMillis() - start);
+        log.info("member import done imported={} skipped={} teamsCreated={} aborted={} elapsed={}ms ({} rows/s)",
+                result.getImported(), result.getSkipped(), result.getTeamsCreated(), result.isAborted(),
+                result.getElapsedMillis(), Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    /**
+     * chunk 하나를 새 트랜잭션으로 저장하고 커밋한다. 커밋된 경우에만 imported, teamsCreated, 팀 캐시에 반영한다.
+     *
+     * @return 실패해서 롤백했으면 false
+     */
+    private boolean commit(List<Row> chunk, Map<String, Long> teamIds, MemberImportResult result) {
+        Map<String, Long> newTeamIds = new HashMap<>();
+        try {
+            chunkTransaction.executeWithoutResult(status -> {
+                for (Row row : chunk) {
+                    em.persist(Member.ofTeamReference(row.username, row.age, team(row.teamName, teamIds, newTeamIds), row.teamName));
+                }
+                em.flush();
+                em.clear();
+            });
+        } catch (RuntimeException e) {
+            //open-in-view 로 영속성 컨텍스트가 트랜잭션보다 오래 살아있는 경우 롤백된 엔티티가 남지 않도록 비운다.
+            em.clear();
+            long from = chunk.get(0).lineNumber;
+            long to = chunk.get(chunk.size() - 1).lineNumber;
+            log.warn("member import chunk rolled back lines={}-{}", from, to, e);
+            result.abort(from, to, chunk.size(), e.getMessage());
+            return false;
+        }
+        teamIds.putAll(newTeamIds);
+        result.setImported(result.getImported() + chunk.size());
+        result.setTeamsCreated(result.getTeamsCreated() + newTeamIds.size());
+        return true;
+    }
+
+    //팀이 없으면 만든다. 새 팀은 chunk 가 커밋된 뒤에 팀 캐시에 넣는다. (롤백되면 버린다)
+    private Team team(String teamName, Map<String, Long> teamIds, Map<String, Long> newTeamIds) {
+        if (teamName.isEmpty()) {
+            return null;
+        }
+        Long teamId = teamIds.get(teamName);
+        if (teamId == null) {
+            teamId = newTeamIds.get(teamName);
+        }
+        if (teamId == null) {
+            Team newTeam = new Team(teamName);
+            em.persist(newTeam);
+            teamId = newTeam.getId();
+            newTeamIds.put(teamName, teamId);
+        }
+        //같은 트랜잭션 안에서는 영속성 컨텍스트에 있는 것을 돌려준다.
+        return em.getReference(Team.class, teamId);
+    }
+
+    //팀은 많지 않으므로 이름 -> id 를 한번에 읽어둔다.
+    private Map<String, Long> loadTeamIds() {
+        List<Object[]> rows = em.createQuery("select t.name, t.id from Team t", Object[].class)
+                .getResultList();
+        Map<String, Long> teamIds = new HashMap<>();
+        for (Object[] row : rows) {
+            teamIds.putIfAbsent((String) row[0], (Long) row[1]);
+        }
+        return teamIds;
+    }
+
+    private String validate(List<String> values) {
+        if (values.size() < 2 || values.size() > 3) {
+            return "expected username,age[,team_name] but got " + values.size() + " columns";
+        }
+        if (values.get(0).isBlank()) {
+            return "username is empty";
+        }
+        try {
+            int age = Integer.parseInt(values.get(1).trim());
+            if (age < 0) {
+                return "age must not be negative: " + age;
+            }
+        } catch (NumberFormatException e) {
+            return "age is not a number: " + values.get(1);
+        }
+        return null;
+    }
+
+    //MemberExportService.csvValue 의 반대 - 따옴표로 감싼 값과 "" 를 처리한다. (값 안의 줄바꿈은 지원하지 않음)
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static class Row {
+        private final long lineNumber;
+        private final String username;
+        private final int age;
+        private final String teamName;
+
+        private Row(long lineNumber, String username, int age, String teamName) {
+            this.lineNumber = lineNumber;
+            this.username = username;
+            this.age = age;
+            this.teamName = teamName;
+        }
+    }
+}
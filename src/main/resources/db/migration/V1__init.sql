@@ -0,0 +1,52 @@
+-- 초기 스키마 (기존 ddl-auto: create 로 생성되던 스키마 + 검색 조건 인덱스)
+
+create sequence hibernate_sequence start with 1 increment by 1;
+
+create table hello
+(
+    id bigint not null,
+    primary key (id)
+);
+
+create table item
+(
+    id           varchar(255) not null,
+    created_date timestamp,
+    primary key (id)
+);
+
+create table team
+(
+    team_id      bigint not null,
+    created_date timestamp,
+    updated_date timestamp,
+    name         varchar(255),
+    primary key (team_id)
+);
+
+create table member
+(
+    member_id          bigint  not null,
+    created_date       timestamp,
+    last_modified_date timestamp,
+    created_by         varchar(255),
+    last_modified_by   varchar(255),
+    age                integer not null,
+    username           varchar(255),
+    team_id            bigint,
+    primary key (member_id)
+);
+
+-- 검색 조건 (MemberQuerydslRepositoryImpl usernameEq, teamNameEq, ageGoe, ageLoe)
+create index idx_member_username on member (username);
+create index idx_member_age on member (age);
+create index idx_team_name on team (name);
+
+-- member + team 검색용 복합 인덱스 : team 조인(team_id) 후 age 범위, username 까지 인덱스만으로 처리
+-- (H2 보조 인덱스는 기본키(member_id)를 같이 가지고 있어서 검색 결과 member 컬럼을 테이블 조회 없이 얻을 수 있다)
+-- team_id 단독 인덱스는 두지 않는다. (선두 컬럼이 team_id 라서 team_id 조건, 조인도 이 인덱스를 사용한다)
+create index idx_member_team_age_username on member (team_id, age, username);
+
+-- 인덱스를 먼저 만들어야 외래키가 위 인덱스를 사용한다. (없으면 H2 가 team_id 인덱스를 따로 만든다)
+alter table member
+    add constraint fk_member_team foreign key (team_id) references team (team_id);
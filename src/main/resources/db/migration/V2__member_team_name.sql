@@ -0,0 +1,10 @@
+-- team.name 비정규화 컬럼 (조인 없는 회원 검색용)
+
+alter table member add column team_name varchar(255);
+
+update member m
+set team_name = (select t.name from team t where t.team_id = m.team_id)
+where m.team_id is not null;
+
+-- 조인 없는 검색 : team_name 조건 -> age 범위 -> username
+create index idx_member_team_name_age_username on member (team_name, age, username);
@@ -0,0 +1,19 @@
+-- 팀별 회원 통계 (count, sum/min/max age) 읽기 모델
+-- member 변경 시 같은 트랜잭션에서 변경된 팀만 다시 계산한다. (TeamStatsUpdater)
+-- team 벌크 삭제에 막히지 않도록 FK 는 걸지 않는다.
+
+create table team_stats
+(
+    team_id      bigint not null,
+    member_count bigint not null,
+    age_sum      bigint not null,
+    min_age      integer,
+    max_age      integer,
+    primary key (team_id)
+);
+
+insert into team_stats (team_id, member_count, age_sum, min_age, max_age)
+select t.team_id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age)
+from team t
+         left join member m on m.team_id = t.team_id
+group by t.team_id;
@@ -0,0 +1,10 @@
+-- 엔티티별 시퀀스 (pooled-lo) - hibernate_sequence 를 row 마다 호출하지 않고 increment 만큼 id 를 미리 할당받는다.
+-- increment 는 엔티티의 @SequenceGenerator(allocationSize) 와 같아야 한다. (다르면 기동 시 검증 실패)
+-- 기존 데이터와 겹치지 않도록 현재 max(id) 다음 값부터 시작한다.
+
+create sequence member_seq start with (select coalesce(max(member_id), 0) + 1 from member) increment by 100;
+create sequence team_seq start with (select coalesce(max(team_id), 0) + 1 from team) increment by 50;
+create sequence hello_seq start with (select coalesce(max(id), 0) + 1 from hello) increment by 50;
+
+-- 모든 엔티티가 자기 시퀀스를 사용하므로 V1 의 hibernate_sequence 는 더 이상 쓰이지 않는다.
+drop sequence hibernate_sequence;
@@ -0,0 +1,15 @@
+-- 문자열 uuid(36자) -> 16바이트 uuid 컬럼 (TimeOrderedUuid 참고)
+
+-- member 감사 컬럼 : 기존 값은 AuditorAware 가 넣은 uuid 문자열이라 그대로 변환된다.
+alter table member alter column created_by uuid;
+alter table member alter column last_modified_by uuid;
+
+-- item.id : 임의 문자열이라 uuid 로 바꿀 수 없다. -> 예제 데이터만 있는 테이블이라 새로 만든다.
+drop table item;
+
+create table item
+(
+    id           uuid not null,
+    created_date timestamp,
+    primary key (id)
+);
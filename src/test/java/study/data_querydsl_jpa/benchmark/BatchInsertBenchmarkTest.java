@@ -0,0 +1,90 @@
+package study.data_querydsl_jpa.benchmark;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * member 대량 저장 : 시퀀스 pooled-lo + jdbc batch 적용 후 statement 수 / 처리량
+ * 비교용으로 batch 를 끄고 돌려볼 수 있다. -> -Dbenchmark.batch-size=1
+ * ./gradlew benchmark --tests '*BatchInsertBenchmarkTest' -Dbenchmark.members=1000000
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {
+        "decorator.datasource.p6spy.enable-logging=false",
+        "logging.level.org.hibernate.SQL=info",
+        "sql-guard.cartesian.enabled=false",
+        "sql-guard.index-advisor.enabled=false",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=${benchmark.batch-size:100}"
+})
+class BatchInsertBenchmarkTest {
+
+    static final int TEAMS = 10;
+    static final int CHUNK = 10_000;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    int members = BenchmarkSupport.intProperty("members", 1_000_000);
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.update("delete from member");
+        jdbcTemplate.update("delete from team");
+        jdbcTemplate.update("delete from team_stats");
+    }
+
+    @Test
+    void persistMembers() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        long start = System.nanoTime();
+        Long[] teamIds = transactionTemplate.execute(status -> {
+            Long[] ids = new Long[TEAMS];
+            for (int i = 0; i < TEAMS; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                ids[i] = team.getId();
+            }
+            return ids;
+        });
+
+        //CHUNK 건마다 커밋 -> 영속성 컨텍스트가 커지지 않게 트랜잭션 단위로 끊는다.
+        for (int from = 0; from < members; from += CHUNK) {
+            int chunkStart = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = chunkStart; i < Math.min(chunkStart + CHUNK, members); i++) {
+                    Team team = em.getReference(Team.class, teamIds[i % TEAMS]);
+                    em.persist(new Member("member" + i, i % 100, team));
+                }
+            });
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member", Long.class)).isEqualTo(members);
+        BenchmarkSupport.print("batch-insert", "members=%d %.2fs (%.0f rows/s) statements=%d inserts=%d",
+                members, seconds, members / seconds, statistics.getPrepareStatementCount(), statistics.getEntityInsertCount());
+    }
+}
@@ -0,0 +1,34 @@
+package study.data_querydsl_jpa.benchmark;
+
+/**
+ * 벤치마크 테스트 공통 유틸
+ * 데이터 건수 등은 -Dbenchmark.xxx 시스템 프로퍼티로 바꿀 수 있다. (build.gradle benchmark task 참고)
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger("benchmark." + name, defaultValue);
+    }
+
+    /**
+     * warmup 만큼 먼저 실행한 뒤 iterations 번 실행한 평균 시간(ms)
+     */
+    static double averageMillis(int warmup, int iterations, Runnable task) {
+        for (int i = 0; i < warmup; i++) {
+            task.run();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / iterations;
+    }
+
+    static void print(String title, String format, Object... args) {
+        System.out.println("[benchmark] " + title + " | " + String.format(format, args));
+    }
+}
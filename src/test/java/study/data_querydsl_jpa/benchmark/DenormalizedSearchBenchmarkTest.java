@@ -0,0 +1,91 @@
+package study.data_querydsl_jpa.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_querydsl_jpa.dto.MemberSearchCondition;
+import study.data_querydsl_jpa.dto.MemberTeamDto;
+import study.data_querydsl_jpa.repository_querydsl.MemberQuerydslRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * /v3/members 검색 : team 조인(searchPageComplex) vs member.team_name 비정규화 컬럼(searchPageDenormalized) 처리량 비교
+ * 데이터는 insert ... select system_range 로 한번에 넣는다.
+ * ./gradlew benchmark --tests '*DenormalizedSearchBenchmarkTest' -Dbenchmark.members=1000000
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {
+        "decorator.datasource.p6spy.enable-logging=false",
+        "logging.level.org.hibernate.SQL=info",
+        "paging.count-cache.enabled=false"
+})
+class DenormalizedSearchBenchmarkTest {
+
+    static final int TEAMS = 10;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    MemberQuerydslRepository memberQuerydslRepository;
+
+    int members = BenchmarkSupport.intProperty("members", 1_000_000);
+
+    @BeforeAll
+    void setUp() {
+        jdbcTemplate.update("insert into team (team_id, name) select x, 'team' || x from system_range(1, ?)", TEAMS);
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id, team_name) " +
+                "select x, 'member' || x, mod(x, 100), mod(x, ?) + 1, 'team' || (mod(x, ?) + 1) " +
+                "from system_range(?, ?)", TEAMS, TEAMS, TEAMS + 1, TEAMS + members);
+        jdbcTemplate.execute("alter sequence team_seq restart with " + (TEAMS + members + 1));
+        jdbcTemplate.execute("alter sequence member_seq restart with " + (TEAMS + members + 1));
+        jdbcTemplate.execute("analyze");
+    }
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.update("delete from member");
+        jdbcTemplate.update("delete from team");
+    }
+
+    @Test
+    void joinVsDenormalized() {
+        MemberSearchCondition teamCondition = new MemberSearchCondition();
+        teamCondition.setTeamName("team3");
+        teamCondition.setAgeGoe(20);
+        teamCondition.setAgeLoe(40);
+
+        MemberSearchCondition[] conditions = {new MemberSearchCondition(), teamCondition};
+        //정렬이 없으면 두 쿼리가 다른 인덱스를 타서 같은 페이지라도 다른 row 가 올 수 있다. -> 같은 정렬로 비교
+        PageRequest pageRequest = PageRequest.of(10, 20, Sort.by("memberId"));
+
+        for (MemberSearchCondition condition : conditions) {
+            assertThat(search(condition, pageRequest, true).getContent())
+                    .isEqualTo(search(condition, pageRequest, false).getContent());
+
+            double join = BenchmarkSupport.averageMillis(5, 20, () -> search(condition, pageRequest, false));
+            double denormalized = BenchmarkSupport.averageMillis(5, 20, () -> search(condition, pageRequest, true));
+
+            BenchmarkSupport.print("denormalized", "members=%d teamName=%s join=%.2fms (%.1f ops/s) denormalized=%.2fms (%.1f ops/s)",
+                    members, condition.getTeamName(), join, 1000 / join, denormalized, 1000 / denormalized);
+        }
+    }
+
+    private Page<MemberTeamDto> search(MemberSearchCondition condition, PageRequest pageRequest, boolean denormalized) {
+        return transactionTemplate.execute(status -> denormalized
+                ? memberQuerydslRepository.searchPageDenormalized(condition, pageRequest)
+                : memberQuerydslRepository.searchPageComplex(condition, pageRequest));
+    }
+}
@@ -0,0 +1,84 @@
+package study.data_querydsl_jpa.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_querydsl_jpa.common.id.TimeOrderedUuid;
+import study.data_querydsl_jpa.dto.ItemInsertResult;
+import study.data_querydsl_jpa.entity.Item;
+import study.data_querydsl_jpa.repository.ItemRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Item 100k 저장 : itemRepository.save (엔티티 persist) vs itemRepository.insertAll (JDBC batch, select 없음)
+ * ./gradlew benchmark --tests '*ItemInsertBenchmarkTest' -Dbenchmark.items=100000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "decorator.datasource.p6spy.enable-logging=false",
+        "logging.level.org.hibernate.SQL=info",
+        "sql-guard.cartesian.enabled=false",
+        "sql-guard.index-advisor.enabled=false"
+})
+class ItemInsertBenchmarkTest {
+
+    static final int CHUNK = 1_000;
+
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    int items = BenchmarkSupport.intProperty("items", 100_000);
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from item");
+    }
+
+    @Test
+    void saveVsInsertAll() {
+        List<UUID> ids = IntStream.range(0, items).mapToObj(i -> TimeOrderedUuid.next()).collect(Collectors.toList());
+
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ids.size(); i++) {
+                itemRepository.save(new Item(ids.get(i)));
+                if ((i + 1) % CHUNK == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+        double save = (System.nanoTime() - start) / 1_000_000.0;
+
+        jdbcTemplate.update("delete from item");
+
+        start = System.nanoTime();
+        ItemInsertResult result = transactionTemplate.execute(status -> itemRepository.insertAll(ids));
+        double insertAll = (System.nanoTime() - start) / 1_000_000.0;
+
+        //같은 id 를 다시 넣으면 전부 중복으로 보고된다.
+        ItemInsertResult duplicates = transactionTemplate.execute(status -> itemRepository.insertAll(ids));
+
+        assertThat(result.getInserted()).isEqualTo(items);
+        assertThat(duplicates.getDuplicateIds()).hasSize(items);
+        BenchmarkSupport.print("item-insert", "items=%d save=%.0fms (%.0f rows/s) insertAll=%.0fms (%.0f rows/s)",
+                items, save, items * 1000 / save, insertAll, items * 1000 / insertAll);
+    }
+}
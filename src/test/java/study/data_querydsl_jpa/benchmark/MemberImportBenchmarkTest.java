@@ -0,0 +1,63 @@
+package study.data_querydsl_jpa.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.data_querydsl_jpa.dto.MemberImportResult;
+import study.data_querydsl_jpa.service.MemberImportService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * POST /members/bulk 처리량 (목표 50k rows/s 이상)
+ * CSV 는 메모리에 만들어두고 MemberImportService 시간만 잰다.
+ * ./gradlew benchmark --tests '*MemberImportBenchmarkTest' -Dbenchmark.members=500000
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {
+        "decorator.datasource.p6spy.enable-logging=false",
+        "logging.level.org.hibernate.SQL=info",
+        "sql-guard.cartesian.enabled=false",
+        "sql-guard.index-advisor.enabled=false"
+})
+class MemberImportBenchmarkTest {
+
+    static final int TEAMS = 10;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    MemberImportService memberImportService;
+
+    int members = BenchmarkSupport.intProperty("members", 500_000);
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.update("delete from member");
+        jdbcTemplate.update("delete from team");
+        jdbcTemplate.update("delete from team_stats");
+    }
+
+    @Test
+    void importCsv() throws Exception {
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        for (int i = 0; i < members; i++) {
+            csv.write(("member" + i + "," + (i % 100) + ",team" + (i % TEAMS) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        MemberImportResult result = memberImportService.importCsv(new ByteArrayInputStream(csv.toByteArray()));
+
+        assertThat(result.getImported()).isEqualTo(members);
+        BenchmarkSupport.print("member-import", "members=%d %dms (%.0f rows/s) teamsCreated=%d",
+                members, result.getElapsedMillis(), result.getRowsPerSecond(), result.getTeamsCreated());
+    }
+}
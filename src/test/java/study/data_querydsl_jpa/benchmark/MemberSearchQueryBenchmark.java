@@ -0,0 +1,150 @@
+package study.data_querydsl_jpa.benchmark;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_querydsl_jpa.DataQueryDslJpaApplication;
+import study.data_querydsl_jpa.dto.MemberSearchCondition;
+import study.data_querydsl_jpa.dto.MemberTeamDto;
+import study.data_querydsl_jpa.dto.QMemberTeamDto;
+import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.entity.Team;
+import study.data_querydsl_jpa.repository_querydsl.MemberQuerydslJpaRepository;
+import study.data_querydsl_jpa.repository_querydsl.MemberSearchJpql;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.data_querydsl_jpa.entity.QMember.member;
+import static study.data_querydsl_jpa.entity.QTeam.team;
+
+/**
+ * Querydsl 로 매번 쿼리 생성 vs MemberQuerydslJpaRepository.search (shape 별 JPQL 캐시) 비교 (JMH)
+ * - buildQuerydsl / buildCached : DB 없이 JPQL 문자열을 얻기까지의 비용만 비교
+ * - searchQuerydsl / searchCached : 실제 조회까지 포함한 비교 (H2 메모리 DB, 작은 결과)
+ * ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberSearchQueryBenchmark {
+
+    @Param({"1000"})
+    int members;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate transactionTemplate;
+    MemberQuerydslJpaRepository memberQuerydslJpaRepository;
+    EntityManager em;
+    MemberSearchJpql searchJpql;
+    MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataQueryDslJpaApplication.class)
+                .properties(
+                        "spring.main.web-application-type=none",
+                        "decorator.datasource.p6spy.enable-logging=false",
+                        "logging.level.org.hibernate.SQL=info")
+                .run();
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        memberQuerydslJpaRepository = context.getBean(MemberQuerydslJpaRepository.class);
+        em = context.getBean(EntityManager.class);
+        searchJpql = new MemberSearchJpql(this::query);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Team[] teams = new Team[10];
+            for (int i = 0; i < teams.length; i++) {
+                teams[i] = new Team("team" + i);
+                em.persist(teams[i]);
+            }
+            for (int i = 0; i < members; i++) {
+                em.persist(new Member("member" + i, i % 100, teams[i % teams.length]));
+            }
+        });
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(12);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String buildQuerydsl() {
+        //JPAQuery.fetch() 가 내부에서 하는 직렬화와 같다.
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(query(condition).getMetadata(), false, null);
+        return serializer.toString();
+    }
+
+    @Benchmark
+    public String buildCached() {
+        return searchJpql.jpql(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchQuerydsl() {
+        return transactionTemplate.execute(status -> query(condition).clone(em).fetch());
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchCached() {
+        return transactionTemplate.execute(status -> memberQuerydslJpaRepository.search(condition));
+    }
+
+    private JPAQuery<MemberTeamDto> query(MemberSearchCondition condition) {
+        return new JPAQuery<>()
+                .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
@@ -0,0 +1,95 @@
+package study.data_querydsl_jpa.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_querydsl_jpa.dto.MemberSearchCondition;
+import study.data_querydsl_jpa.dto.MemberTeamDto;
+import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.entity.Team;
+import study.data_querydsl_jpa.repository_querydsl.MemberTestRepositoryBySupport;
+import study.data_querydsl_jpa.repository_querydsl.support.PagingStrategy;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * OFFSET(한번에 조회) vs DEFERRED_JOIN(id 먼저 페이징) 비교
+ * ./gradlew benchmark --tests '*PagingStrategyBenchmarkTest' -Dbenchmark.members=1000000
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {
+        "decorator.datasource.p6spy.enable-logging=false",
+        "logging.level.org.hibernate.SQL=info"
+})
+class PagingStrategyBenchmarkTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    MemberTestRepositoryBySupport memberTestRepositoryBySupport;
+
+    int members = BenchmarkSupport.intProperty("members", 100_000);
+
+    @BeforeAll
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team[] teams = new Team[10];
+            for (int i = 0; i < teams.length; i++) {
+                teams[i] = new Team("team" + i);
+                em.persist(teams[i]);
+            }
+            for (int i = 0; i < members; i++) {
+                em.persist(new Member("member" + i, i % 100, teams[i % teams.length]));
+                if (i % 1000 == 0) {
+                    em.flush();
+                    em.clear();
+                    for (int t = 0; t < teams.length; t++) {
+                        teams[t] = em.getReference(Team.class, teams[t].getId());
+                    }
+                }
+            }
+        });
+    }
+
+    @AfterAll
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m").executeUpdate();
+            em.createQuery("delete from Team t").executeUpdate();
+        });
+    }
+
+    @Test
+    void offsetVsDeferredJoin() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        int size = 20;
+        int[] pages = {0, members / size / 2, members / size - 1};
+
+        for (int page : pages) {
+            PageRequest pageRequest = PageRequest.of(page, size, Sort.by("username"));
+
+            List<MemberTeamDto> offset = memberTestRepositoryBySupport.applyPaginationImproved(condition, pageRequest, PagingStrategy.OFFSET).getContent();
+            List<MemberTeamDto> deferred = memberTestRepositoryBySupport.applyPaginationImproved(condition, pageRequest, PagingStrategy.DEFERRED_JOIN).getContent();
+            assertThat(deferred).isEqualTo(offset);
+
+            for (PagingStrategy strategy : PagingStrategy.values()) {
+                double millis = BenchmarkSupport.averageMillis(3, 10, () -> transactionTemplate.executeWithoutResult(status ->
+                        memberTestRepositoryBySupport.applyPaginationImproved(condition, pageRequest, strategy)));
+                BenchmarkSupport.print("paging", "members=%d page=%d strategy=%s avg=%.2fms", members, page, strategy, millis);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package study.data_querydsl_jpa.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.entity.Team;
+import study.data_querydsl_jpa.repository.MemberRepository;
+import study.data_querydsl_jpa.repository.NestedClosedProjections;
+
+import javax.persistence.EntityManager;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 인터페이스 프로젝션(스프링 데이터 프록시) vs 구현 클래스 프로젝션(QXxxView 생성자) 비교
+ * 모든 회원이 같은 username 이라 한번 조회에 members 건이 반환된다.
+ * ./gradlew benchmark --tests '*ProjectionBenchmarkTest' -Dbenchmark.members=100000
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {
+        "decorator.datasource.p6spy.enable-logging=false",
+        "logging.level.org.hibernate.SQL=info"
+})
+class ProjectionBenchmarkTest {
+
+    static final String USERNAME = "member";
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    MemberRepository memberRepository;
+
+    int members = BenchmarkSupport.intProperty("members", 20_000);
+
+    @BeforeAll
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("teamA");
+            em.persist(team);
+            for (int i = 0; i < members; i++) {
+                em.persist(new Member(USERNAME, i % 100, team));
+                if (i % 1000 == 0) {
+                    em.flush();
+                    em.clear();
+                    team = em.getReference(Team.class, team.getId());
+                }
+            }
+        });
+    }
+
+    @AfterAll
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m").executeUpdate();
+            em.createQuery("delete from Team t").executeUpdate();
+        });
+    }
+
+    @Test
+    void usernameOnly() {
+        assertThat(fetchInTransaction(() -> memberRepository.findUsernameOnlyByUsername(USERNAME).size())).isEqualTo(members);
+
+        double proxy = BenchmarkSupport.averageMillis(3, 10, () -> inTransaction(() ->
+                memberRepository.findProjectionByUsername(USERNAME).forEach(row -> row.getUsername())));
+        double view = BenchmarkSupport.averageMillis(3, 10, () -> inTransaction(() ->
+                memberRepository.findUsernameOnlyByUsername(USERNAME).forEach(row -> row.getUsername())));
+
+        BenchmarkSupport.print("projection", "UsernameOnly rows=%d proxy=%.2fms view=%.2fms", members, proxy, view);
+    }
+
+    @Test
+    void nestedClosed() {
+        assertThat(fetchInTransaction(() -> memberRepository.findNestedClosedByUsername(USERNAME).size())).isEqualTo(members);
+
+        double proxy = BenchmarkSupport.averageMillis(3, 10, () -> inTransaction(() ->
+                memberRepository.findProjectionClassTypeByUsername(USERNAME, NestedClosedProjections.class)
+                        .forEach(row -> row.getTeam().getName())));
+        double view = BenchmarkSupport.averageMillis(3, 10, () -> inTransaction(() ->
+                memberRepository.findNestedClosedByUsername(USERNAME).forEach(row -> row.getTeam().getName())));
+
+        BenchmarkSupport.print("projection", "NestedClosedProjections rows=%d proxy=%.2fms view=%.2fms", members, proxy, view);
+    }
+
+    private <T> T fetchInTransaction(Supplier<T> query) {
+        return transactionTemplate.execute(status -> query.get());
+    }
+
+    private void inTransaction(Runnable query) {
+        transactionTemplate.executeWithoutResult(status -> query.run());
+    }
+}
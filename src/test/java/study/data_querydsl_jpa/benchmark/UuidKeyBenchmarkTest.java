@@ -0,0 +1,75 @@
+package study.data_querydsl_jpa.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.data_querydsl_jpa.common.id.TimeOrderedUuid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * pk 형식별 insert 처리량 / 테이블(+pk 인덱스) 크기
+ * - varchar(36) + UUID.randomUUID (기존 createdBy 방식)
+ * - uuid(16바이트) + UUID.randomUUID
+ * - uuid(16바이트) + TimeOrderedUuid (Item.id 방식)
+ * 크기는 H2 DISK_SPACE_USED (테이블 + 인덱스 페이지 바이트)
+ * ./gradlew benchmark --tests '*UuidKeyBenchmarkTest' -Dbenchmark.rows=1000000
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {
+        "decorator.datasource.p6spy.enable-logging=false",
+        "sql-guard.cartesian.enabled=false",
+        "sql-guard.index-advisor.enabled=false"
+})
+class UuidKeyBenchmarkTest {
+
+    static final int BATCH = 1_000;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    int rows = BenchmarkSupport.intProperty("rows", 1_000_000);
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.execute("drop table if exists bench_uuid_varchar");
+        jdbcTemplate.execute("drop table if exists bench_uuid_random");
+        jdbcTemplate.execute("drop table if exists bench_uuid_v7");
+    }
+
+    @Test
+    void insertRateAndSize() {
+        run("bench_uuid_varchar", "varchar(36)", () -> UUID.randomUUID().toString());
+        run("bench_uuid_random", "uuid", UUID::randomUUID);
+        run("bench_uuid_v7", "uuid", TimeOrderedUuid::next);
+    }
+
+    private void run(String table, String type, Supplier<Object> ids) {
+        jdbcTemplate.execute("create table " + table + " (id " + type + " not null, created_by " + type + ", primary key (id))");
+
+        long start = System.nanoTime();
+        for (int from = 0; from < rows; from += BATCH) {
+            List<Object[]> batch = new ArrayList<>(BATCH);
+            for (int i = from; i < Math.min(from + BATCH, rows); i++) {
+                batch.add(new Object[]{ids.get(), ids.get()});
+            }
+            jdbcTemplate.batchUpdate("insert into " + table + " (id, created_by) values (?, ?)", batch);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from " + table, Long.class)).isEqualTo(rows);
+        Long bytes = jdbcTemplate.queryForObject("select disk_space_used('" + table.toUpperCase() + "')", Long.class);
+        BenchmarkSupport.print("uuid-key", "%s(%s) rows=%d %.2fs (%.0f rows/s) size=%.1fMB",
+                table, type, rows, seconds, rows / seconds, bytes / 1024.0 / 1024.0);
+    }
+}
@@ -0,0 +1,40 @@
+package study.data_querydsl_jpa.common.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedUuidTest {
+
+    @Test
+    public void next() throws Exception {
+        //given
+        long before = System.currentTimeMillis();
+
+        //when
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            uuids.add(TimeOrderedUuid.next());
+        }
+
+        //then
+        UUID first = uuids.get(0);
+        assertThat(first.version()).isEqualTo(7);
+        assertThat(first.variant()).isEqualTo(2);
+        assertThat(TimeOrderedUuid.timestamp(first)).isBetween(before, System.currentTimeMillis() + 1);
+
+        //생성 순서 == 정렬 순서 (DB uuid 비교와 같은 unsigned 비교)
+        for (int i = 1; i < uuids.size(); i++) {
+            assertThat(compareUnsigned(uuids.get(i - 1), uuids.get(i))).isNegative();
+        }
+    }
+
+    private int compareUnsigned(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
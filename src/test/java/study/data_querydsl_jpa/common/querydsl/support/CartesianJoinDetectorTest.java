@@ -0,0 +1,80 @@
+package study.data_querydsl_jpa.common.querydsl.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class CartesianJoinDetectorTest {
+
+    @Test
+    public void inspect() throws Exception {
+        //given
+        String missingOn = "select m.member_id as id, m.username, t.name as teamName from member m left join team t limit ?";
+        String withOn = "select m.member_id as id, m.username, t.name as teamName from member m " +
+                "left join team t on m.team_id = t.team_id limit ?";
+        String hibernateJoin = "select member0_.member_id as col_0_0_ from member member0_ " +
+                "left outer join team team1_ on member0_.team_id=team1_.team_id where team1_.name=?";
+        String thetaJoin = "select member0_.member_id as member_i1_1_ from member member0_ cross join team team1_ " +
+                "where member0_.username=team1_.name";
+        String commaJoin = "select m.username from member m, team t where m.age > ?";
+        String subquery = "select m.username from member m where m.age = (select max(m2.age) from member m2, team t)";
+
+        //when //then
+        assertThat(CartesianJoinDetector.inspect(missingOn)).hasValueSatisfying(reason -> assertThat(reason).contains("left join team"));
+        assertThat(CartesianJoinDetector.inspect(withOn)).isEmpty();
+        assertThat(CartesianJoinDetector.inspect(hibernateJoin)).isEmpty();
+        assertThat(CartesianJoinDetector.inspect(thetaJoin)).isEmpty();
+        assertThat(CartesianJoinDetector.inspect(commaJoin)).isPresent();
+        assertThat(CartesianJoinDetector.inspect(subquery)).isEmpty();
+        assertThat(CartesianJoinDetector.inspect("insert into member (username) values (?)")).isEmpty();
+    }
+
+    @Test
+    public void inspectCachedIsBounded() throws Exception {
+        //given
+        CartesianJoinDetector detector = new CartesianJoinDetector(true, 10, 1000, 2);
+        String missingOn = "select m.username from member m left join team t limit ?";
+        String withOn = "select m.username from member m left join team t on m.team_id = t.team_id limit ?";
+        String insert = "insert into member (username) values (?)";
+
+        //when
+        detector.inspectCached(missingOn);
+        detector.inspectCached(withOn);
+        detector.inspectCached(insert);
+
+        //then
+        assertThat(detector.inspectedSqlCount()).isEqualTo(2);
+        assertThat(detector.inspectCached(missingOn)).isEqualTo(CartesianJoinDetector.inspect(missingOn)).isPresent();
+        assertThat(detector.inspectCached(withOn)).isEmpty();
+    }
+
+    /**
+     * findings() 로 받은 목록, 객체는 이후 같은 SQL 이 다시 감지되어도 바뀌지 않는다.
+     */
+    @Test
+    public void findingsAreSnapshots() throws Exception {
+        //given
+        CartesianJoinDetector detector = new CartesianJoinDetector(true, 10, 1000, 100);
+        StatementInformation statement = mock(StatementInformation.class);
+        given(statement.getSql()).willReturn("select m.username from member m, team t where m.age > ?");
+        detector.onAfterAnyExecute(statement, 0, null);
+        List<JoinFinding> before = detector.findings();
+
+        //when
+        detector.onAfterAnyExecute(statement, 0, null);
+
+        //then
+        assertThat(before).hasSize(1);
+        assertThat(before.get(0).getOccurrences()).isEqualTo(1);
+        assertThat(detector.findings()).hasSize(1);
+        assertThat(detector.findings().get(0).getOccurrences()).isEqualTo(2);
+        assertThat(detector.findings().get(0).getFirstDetectedAt()).isEqualTo(before.get(0).getFirstDetectedAt());
+        assertThatThrownBy(() -> before.add(before.get(0))).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
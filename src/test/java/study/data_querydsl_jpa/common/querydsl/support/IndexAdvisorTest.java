@@ -0,0 +1,96 @@
+package study.data_querydsl_jpa.common.querydsl.support;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.StatementInformation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class IndexAdvisorTest {
+
+    @Test
+    public void candidateColumns() throws Exception {
+        //given
+        String search = "select member0_.member_id as col_0_0_, member0_.username as col_1_0_ from member member0_ " +
+                "left outer join team team1_ on member0_.team_id=team1_.team_id " +
+                "where team1_.name=? and member0_.age>=? and member0_.age<=? and member0_.username=? " +
+                "order by member0_.username asc limit ?";
+        String noPredicate = "select member0_.member_id as col_0_0_ from member member0_ limit ?";
+
+        //when
+        Map<String, List<String>> columns = IndexAdvisor.candidateColumns(search);
+
+        //then
+        assertThat(columns).containsOnlyKeys("member", "team");
+        assertThat(columns.get("member")).containsExactly("username", "age");
+        assertThat(columns.get("team")).containsExactly("name");
+        assertThat(IndexAdvisor.candidateColumns(noPredicate)).isEmpty();
+        assertThat(IndexAdvisor.candidateColumns("update member set age=age+1 where age>=?")).isEmpty();
+    }
+
+    /**
+     * maxShapes 가 가득 차면 새 shape 을 버리지 않고 총 실행시간이 가장 작은 shape 을 뺀다.
+     */
+    @Test
+    public void evictLeastTotalShape() throws Exception {
+        //given
+        IndexAdvisor advisor = new IndexAdvisor(null, true, 1.0, 20, 2);
+        String slow = "select m.username from member m where m.age>=?";
+        String fast = "select m.username from member m where m.username=?";
+        String newShape = "select t.name from team t where t.name=?";
+        advisor.onAfterAnyExecute(statement(slow), 50_000_000L, null);
+        advisor.onAfterAnyExecute(statement(fast), 1_000_000L, null);
+
+        //when
+        advisor.onAfterAnyExecute(statement(newShape), 2_000_000L, null);
+
+        //then
+        assertThat(advisor.shapeKeys()).containsExactlyInAnyOrder(slow, newShape);
+        assertThat(advisor.shapeCount()).isEqualTo(2);
+        assertThat(advisor.evictedShapes()).isEqualTo(1);
+    }
+
+    /**
+     * EXPLAIN 샘플은 값이 들어간 SQL 문자열이 아니라 가장 느린 실행에 바인딩된 파라미터 값이다.
+     * 값을 받지 못한 prepared SQL 은 다시 바인딩할 수 없으므로 샘플이 없다. (EXPLAIN 생략)
+     */
+    @Test
+    public void sampleSlowestBoundParameters() throws Exception {
+        //given
+        IndexAdvisor advisor = new IndexAdvisor(null, true, 1.0, 20, 10);
+        String sql = "select m.username from member m where m.username=? and m.age>=?";
+        String unbound = "select t.name from team t where t.name=?";
+        PreparedStatementInformation fast = preparedStatement(sql);
+        PreparedStatementInformation slow = preparedStatement(sql);
+
+        //when
+        advisor.onAfterPreparedStatementSet(fast, 1, "member1", null);
+        advisor.onAfterPreparedStatementSet(fast, 2, 10, null);
+        advisor.onAfterAnyExecute(fast, 1_000_000L, null);
+        advisor.onAfterPreparedStatementSet(slow, 1, "it's", null);
+        advisor.onAfterPreparedStatementSet(slow, 2, 20, null);
+        advisor.onAfterAnyExecute(slow, 50_000_000L, null);
+        advisor.onAfterAnyExecute(statement(unbound), 50_000_000L, null);
+
+        //then
+        assertThat(advisor.sampleParameters(sql)).containsExactly("it's", 20);
+        assertThat(advisor.sampleParameters(unbound)).isNull();
+    }
+
+    private StatementInformation statement(String sql) {
+        StatementInformation statement = mock(StatementInformation.class);
+        given(statement.getSql()).willReturn(sql);
+        return statement;
+    }
+
+    private PreparedStatementInformation preparedStatement(String sql) {
+        PreparedStatementInformation statement = mock(PreparedStatementInformation.class);
+        given(statement.getSql()).willReturn(sql);
+        return statement;
+    }
+}
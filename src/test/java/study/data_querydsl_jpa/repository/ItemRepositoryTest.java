@@ -3,8 +3,33 @@ package study.data_querydsl_jpa.repository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_querydsl_jpa.common.id.TimeOrderedUuid;
+import study.data_querydsl_jpa.dto.ItemInsertResult;
 import study.data_querydsl_jpa.entity.Item;
 
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
 @SpringBootTest
 class ItemRepositoryTest {
 
@@ -19,11 +44,87 @@ class ItemRepositoryTest {
          *      해당 key 값으로 적용 및 진행 하고싶으면 Entity에 persistable<T> 형식으로 인터페이스를 상속 받아야 한다.
          *      createdDate 형식으로 isNew 값을 true 형식으로 전략화 한다.
          * */
-        Item item = new Item("A");
+        Item item = Item.create();
         itemRepository.save(item);
         //when
 
         //then
     }
 
-}
\ No newline at end of file
+    /**
+     * 새 Item 만 insert (select 없이 JDBC batch) - 이미 있는 id 는 실패 대신 duplicateIds 로 돌려준다.
+     */
+    @Test
+    @Transactional
+    public void insertAll() throws Exception {
+        //given
+        UUID item1 = TimeOrderedUuid.next();
+        UUID item2 = TimeOrderedUuid.next();
+        UUID item3 = TimeOrderedUuid.next();
+        itemRepository.save(new Item(item3));
+        List<UUID> ids = List.of(item1, item2, item1, item3);
+
+        //when
+        ItemInsertResult result = itemRepository.insertAll(ids);
+
+        //then
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getDuplicateIds()).containsExactly(item1, item3);
+        assertThat(itemRepository.findAllById(List.of(item1, item2, item3))).hasSize(3);
+    }
+
+    /**
+     * 첫 실패에서 batch 를 멈추는 드라이버 - getUpdateCounts() 가 실패 전까지의 건수만 돌려준다. (H2 는 끝까지 실행해서 재현되지 않으므로 JDBC 를 흉내낸다)
+     * 실패할 때마다 savepoint 로 되돌리고 중복 id 를 뺀 나머지를 다시 실행해야 한다.
+     */
+    @Test
+    public void insertBatchShortUpdateCounts() throws Exception {
+        //given
+        UUID item1 = TimeOrderedUuid.next();
+        UUID duplicate1 = TimeOrderedUuid.next();
+        UUID item2 = TimeOrderedUuid.next();
+        UUID duplicate2 = TimeOrderedUuid.next();
+        UUID item3 = TimeOrderedUuid.next();
+        Set<UUID> existing = Set.of(duplicate1, duplicate2);
+
+        Connection connection = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        Savepoint savepoint = mock(Savepoint.class);
+        List<UUID> added = new ArrayList<>();
+        List<List<UUID>> executed = new ArrayList<>();
+        given(connection.setSavepoint()).willReturn(savepoint);
+        given(connection.prepareStatement(anyString())).willAnswer(invocation -> {
+            added.clear();
+            return ps;
+        });
+        willAnswer(invocation -> added.add(invocation.getArgument(1))).given(ps).setObject(eq(1), any());
+        given(ps.executeBatch()).willAnswer(invocation -> {
+            executed.add(List.copyOf(added));
+            for (int i = 0; i < added.size(); i++) {
+                if (existing.contains(added.get(i))) {
+                    int[] counts = new int[i];
+                    Arrays.fill(counts, 1);
+                    throw new BatchUpdateException("duplicate key", "23505", 0, counts);
+                }
+            }
+            int[] counts = new int[added.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+        ItemInsertResult result = new ItemInsertResult();
+
+        //when
+        ItemRepositoryImpl.insertBatch(connection, List.of(item1, duplicate1, item2, duplicate2, item3),
+                Timestamp.valueOf(LocalDateTime.now()), result);
+
+        //then
+        assertThat(result.getInserted()).isEqualTo(3);
+        assertThat(result.getDuplicateIds()).containsExactly(duplicate1, duplicate2);
+        assertThat(executed).containsExactly(
+                List.of(item1, duplicate1, item2, duplicate2, item3),
+                List.of(item1, item2, duplicate2, item3),
+                List.of(item1, item2, item3));
+        verify(connection, times(2)).rollback(savepoint);
+        verify(connection).releaseSavepoint(savepoint);
+    }
+}
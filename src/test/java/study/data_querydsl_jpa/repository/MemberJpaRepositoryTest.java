@@ -1,5 +1,7 @@
 package study.data_querydsl_jpa.repository;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,8 +9,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.entity.Team;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -24,6 +28,8 @@ class MemberJpaRepositoryTest {
     TeamJpaRepository teamJpaRepository;
     @Autowired
     EntityManager em;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
 
     @BeforeEach
     public void init() {
@@ -127,4 +133,31 @@ class MemberJpaRepositoryTest {
         //then
         assertThat(resultCount).isEqualTo(3);
     }
-}
\ No newline at end of file
+
+    /**
+     * InitMemberService.init 과 같은 team 2 + member 100 저장
+     * 시퀀스 pooled-lo + jdbc batch -> 시퀀스 호출 2번, insert batch 2번 정도로 끝나야 한다. (기존 ~200 statement)
+     */
+    @Test
+    public void batchInsert() throws Exception {
+        //given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        em.flush();
+        long before = statistics.getPrepareStatementCount();
+
+        //when
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 100; i++) {
+            Team selectedTeam = i % 2 == 0 ? teamA : teamB;
+            memberJpaRepository.save(new Member("member" + i, i, selectedTeam));
+        }
+        em.flush();
+
+        //then
+        assertThat(memberJpaRepository.count()).isEqualTo(100);
+        assertThat(statistics.getPrepareStatementCount() - before).isLessThanOrEqualTo(10);
+    }
+}
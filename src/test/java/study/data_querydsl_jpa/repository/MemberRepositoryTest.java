@@ -15,9 +15,11 @@ import study.data_querydsl_jpa.entity.Member;
 import study.data_querydsl_jpa.entity.Team;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -169,6 +171,47 @@ class MemberRepositoryTest {
         assertThat(result.get(1).getAge()).isEqualTo(20);
     }
 
+    @Test
+    public void findByNamesBatched() throws Exception {
+        //given
+        Member m1 = new Member("AAA", 10);
+        Member m2 = new Member("BBB", 20);
+        memberRepository.save(m1);
+        memberRepository.save(m2);
+
+        //chunk 3개로 나눠지도록 없는 이름을 채우고, 중복도 넣는다.
+        List<String> names = new ArrayList<>();
+        names.add("AAA");
+        for (int i = 0; i < 1100; i++) {
+            names.add("none" + i);
+        }
+        names.add("BBB");
+        names.add("AAA");
+
+        //when
+        List<Member> result = memberRepository.findByNamesBatched(names);
+
+        //then
+        assertThat(result).extracting("username").containsExactlyInAnyOrder("AAA", "BBB");
+    }
+
+    @Test
+    public void findDtosByIds() throws Exception {
+        //given
+        Team team = new Team("teamA");
+        teamRepository.save(team);
+        Member m1 = memberRepository.save(new Member("AAA", 10, team));
+        Member m2 = memberRepository.save(new Member("BBB", 20));
+        Member m3 = memberRepository.save(new Member("CCC", 30, team));
+
+        //when
+        List<MemberDto> result = memberRepository.findDtosByIds(Arrays.asList(m3.getId(), m1.getId(), -1L, m3.getId(), m2.getId()));
+
+        //then
+        assertThat(result).extracting("userName").containsExactly("CCC", "AAA", "BBB");
+        assertThat(result).extracting("teamName").containsExactly("teamA", "teamA", null);
+    }
+
     @Test
     public void returnType() throws Exception {
         //given
@@ -292,12 +335,9 @@ class MemberRepositoryTest {
 
         //when
         int resultCount = memberRepository.bulkAgePlus(20);
-        //영속성 컨텍스트 때문에 영속성 컨텍스트를 초기화 한다.
-        //em.flush(); //jpa 기본동작이 이러한 save, select 등을 진행한다면 jpql 실행전 디비에 한번 반영 한다.(em.flush())
-        //db 에는 36살로 적용되어 있지만 영속성 컨텍스트에 의해 35살로 불러와 진다. 이러한 이유에서 em.clear()를 진행하지만
-        //또 다른 방법 으로는 @Modifying(clearAutomatically = false) 를 적용한다.
-        //적용시 이 쿼리가 나간후에, em.clear()를 자동으로 실행 해 준다.
-        //em.clear();
+        //벌크 연산은 영속성 컨텍스트를 거치지 않는다.
+        //jpql 실행 전에 save 한 내용은 db 에 먼저 반영(em.flush()) 되지만, 실행 후 db 에는 36살로 적용되어 있어도 영속성 컨텍스트에 의해 35살로 불러와 진다.
+        //그래서 MemberRepositoryImpl.bulkAgePlus 가 update 후에 em.clear() 를 실행한다.
         List<Member> result = memberRepository.findByUsername("member5");
         Member member5 = result.get(0);
 
@@ -493,6 +533,38 @@ class MemberRepositoryTest {
         assertThat(result4.get(0).getTeam().getName()).isEqualTo("teamA");
     }
 
+    /**
+     * 프록시 없이 생성한 프로젝션 구현 클래스 - 인터페이스 프로젝션과 결과가 같아야 한다.
+     */
+    @Test
+    public void projectionViews() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        em.persist(new Member("m1", 0, teamA));
+        em.persist(new Member("m2", 0, teamA));
+        em.persist(new Member("m3", 0));
+
+        em.flush();
+        em.clear();
+
+        //when
+        List<UsernameOnly> usernameOnly = memberRepository.findUsernameOnlyByUsername("m1");
+        List<NestedClosedProjections> nested = memberRepository.findNestedClosedByUsername("m1");
+        List<NestedClosedProjections> noTeam = memberRepository.findNestedClosedByUsername("m3");
+        Page<MemberProjection> page = memberRepository.findMemberProjectionPage(PageRequest.of(0, 2));
+
+        //then
+        assertThat(usernameOnly).extracting("username")
+                .isEqualTo(memberRepository.findProjectionByUsername("m1").stream().map(UsernameOnly::getUsername).collect(Collectors.toList()));
+        assertThat(nested.get(0).getUsername()).isEqualTo("m1");
+        assertThat(nested.get(0).getTeam().getName()).isEqualTo("teamA");
+        assertThat(noTeam.get(0).getTeam()).isNull();
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).hasSize(2);
+    }
+
     /**
      * NativeQuery Test
      * 한계가 있다..추천하지 않는 방식, 정말 어쩔 수 없을때 사용..
@@ -555,4 +627,36 @@ class MemberRepositoryTest {
         //then
         assertThat(content.size()).isEqualTo(2);
     }
+
+    /**
+     * 네이티브 조인이 카테시안 곱이 되지 않는지 확인 - 팀이 여러 개여도 row 수는 member 수를 넘으면 안된다.
+     */
+    @Test
+    public void nativeProjectionRowCountGuard() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Team("teamB"));
+        em.persist(new Team("teamC"));
+
+        em.persist(new Member("m1", 0, teamA));
+        em.persist(new Member("m2", 0, teamA));
+        em.persist(new Member("m3", 0));
+
+        em.flush();
+        em.clear();
+
+        long memberCount = memberRepository.count();
+
+        //when
+        Page<MemberProjection> result = memberRepository.findByNativeProjection(PageRequest.of(0, 100));
+
+        //then
+        assertThat(result.getContent().size()).isLessThanOrEqualTo((int) memberCount);
+        assertThat(result.getTotalElements()).isEqualTo(memberCount);
+        assertThat(result.getContent()).filteredOn(row -> row.getUsername().equals("m1"))
+                .extracting(MemberProjection::getTeamname).containsExactly("teamA");
+        assertThat(result.getContent()).filteredOn(row -> row.getUsername().equals("m3"))
+                .extracting(MemberProjection::getTeamname).containsOnlyNulls();
+    }
 }
\ No newline at end of file
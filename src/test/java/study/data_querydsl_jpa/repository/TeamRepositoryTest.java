@@ -4,14 +4,26 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_querydsl_jpa.dto.TeamStatsDto;
 import study.data_querydsl_jpa.entity.Member;
 import study.data_querydsl_jpa.entity.Team;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @SpringBootTest
 @Transactional
@@ -23,6 +35,8 @@ class TeamRepositoryTest {
     TeamRepository teamRepository;
     @Autowired
     EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
 
     @Test
     @Rollback(value = false)
@@ -63,4 +77,133 @@ class TeamRepositoryTest {
         assertThat(deleteCount).isEqualTo(0);
     }
 
-}
\ No newline at end of file
+    /**
+     * team_stats 는 커밋 직전에 갱신되므로 테스트 트랜잭션을 커밋해가며 확인한다. (커밋한 데이터는 finally 에서 정리)
+     */
+    @Test
+    public void teamStats() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        teamRepository.save(teamA);
+        teamRepository.save(teamB);
+        List<Long> teamIds = List.of(teamA.getId(), teamB.getId());
+
+        try {
+            Member member1 = new Member("member1", 10, teamA);
+            Member member2 = new Member("member2", 20, teamA);
+            Member member3 = new Member("member3", 30, teamB);
+            memberJpaRepository.save(member1);
+            memberJpaRepository.save(member2);
+            memberJpaRepository.save(member3);
+            commitAndRestart();
+
+            //when
+            Member findMember2 = memberJpaRepository.find(member2.getId());
+            findMember2.changeTeam(em.find(Team.class, teamB.getId()));
+            commitAndRestart();
+
+            List<TeamStatsDto> afterChangeTeam = findStats(teamIds);
+            int resultCount = memberJpaRepository.bulkAgePlus(20);
+            List<TeamStatsDto> afterBulk = findStats(teamIds);
+
+            memberJpaRepository.delete(memberJpaRepository.find(member1.getId()));
+            commitAndRestart();
+            List<TeamStatsDto> afterDelete = findStats(teamIds);
+
+            //then
+            assertThat(afterChangeTeam).extracting("teamName", "memberCount", "minAge", "maxAge")
+                    .containsExactly(tuple("teamA", 1L, 10, 10), tuple("teamB", 2L, 20, 30));
+            assertThat(afterChangeTeam.get(1).getAvgAge()).isEqualTo(25.0);
+
+            assertThat(resultCount).isEqualTo(2);
+            assertThat(afterBulk).extracting("teamName", "memberCount", "minAge", "maxAge")
+                    .containsExactly(tuple("teamA", 1L, 10, 10), tuple("teamB", 2L, 21, 31));
+
+            assertThat(afterDelete).extracting("teamName", "memberCount", "minAge", "maxAge")
+                    .containsExactly(tuple("teamA", 0L, null, null), tuple("teamB", 2L, 21, 31));
+        } finally {
+            deleteCommitted(teamIds);
+        }
+    }
+
+    /**
+     * 두 트랜잭션이 같은 팀에 회원을 넣고 둘 다 flush 한 상태(서로의 row 는 안 보임)에서 동시에 커밋해도
+     * team row 잠금으로 집계가 순서대로 실행되어 나중 커밋이 앞의 결과를 덮어쓰지 않아야 한다.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void teamStatsConcurrentTransactions() throws Exception {
+        //given
+        Long teamId = transactionTemplate.execute(status -> {
+            Team team = new Team("teamC");
+            em.persist(team);
+            return team.getId();
+        });
+        CyclicBarrier flushed = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            //when
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                int base = t * 10;
+                futures.add(executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                    Team team = em.find(Team.class, teamId);
+                    for (int i = 0; i < 5; i++) {
+                        em.persist(new Member("concurrent" + (base + i), base + i, team));
+                    }
+                    em.flush();
+                    await(flushed);
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+
+            //then
+            assertThat(findStats(List.of(teamId))).extracting("memberCount", "minAge", "maxAge")
+                    .containsExactly(tuple(10L, 0, 14));
+        } finally {
+            executor.shutdownNow();
+            deleteCommitted(List.of(teamId));
+        }
+    }
+
+    private List<TeamStatsDto> findStats(List<Long> teamIds) {
+        return teamRepository.findTeamStats().stream()
+                .filter(stats -> teamIds.contains(stats.getTeamId()))
+                .collect(Collectors.toList());
+    }
+
+    private void commitAndRestart() {
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        TestTransaction.start();
+    }
+
+    //테스트 트랜잭션(롤백)이 남아있으면 먼저 끝내고 별도 트랜잭션으로 커밋된 데이터를 지운다.
+    private void deleteCommitted(List<Long> teamIds) {
+        if (TestTransaction.isActive()) {
+            TestTransaction.end();
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.team.id in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+            em.createQuery("delete from Team t where t.id in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+            TeamStatsUpdater.recompute(em, teamIds);
+        });
+    }
+
+    private void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
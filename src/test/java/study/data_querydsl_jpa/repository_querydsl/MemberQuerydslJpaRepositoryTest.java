@@ -1,5 +1,6 @@
 package study.data_querydsl_jpa.repository_querydsl;
 
+import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,11 +9,13 @@ import org.springframework.transaction.annotation.Transactional;
 import study.data_querydsl_jpa.dto.MemberSearchCondition;
 import study.data_querydsl_jpa.dto.MemberTeamDto;
 import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.entity.QMember;
 import study.data_querydsl_jpa.entity.Team;
 
 import javax.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -176,29 +179,54 @@ class MemberQuerydslJpaRepositoryTest {
         assertThat(result2).extracting("username").containsExactly("member3", "member4");
     }
 
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
+    /**
+     * 조건 모양(shape) 별 JPQL 캐시 - 같은 shape 이면 Querydsl 직렬화는 한번만 하고 값만 바꿔서 바인딩한다.
+     */
+    @Test
+    public void searchJpqlCacheTest() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(15);
+        condition.setTeamName("teamB");
 
+        MemberSearchCondition sameShape = new MemberSearchCondition();
+        sameShape.setAgeGoe(35);
+        sameShape.setTeamName("teamA");
+
+        //ageGoe = ageLoe 여도 캐시한 JPQL 은 파라미터를 따로 받는다.
+        MemberSearchCondition sameAge = new MemberSearchCondition();
+        sameAge.setAgeGoe(20);
+        sameAge.setAgeLoe(20);
+        MemberSearchCondition ageRange = new MemberSearchCondition();
+        ageRange.setAgeGoe(10);
+        ageRange.setAgeLoe(30);
+
+        AtomicInteger compiles = new AtomicInteger();
+        MemberSearchJpql searchJpql = new MemberSearchJpql(c -> {
+            compiles.incrementAndGet();
+            return new JPAQueryFactory(em).selectFrom(QMember.member).where(QMember.member.username.eq(c.getUsername()));
+        });
+        MemberSearchCondition username = new MemberSearchCondition();
+        username.setUsername("member1");
 
+        //when
+        List<MemberTeamDto> result = memberQuerydslJpaRepository.search(condition);
+        List<MemberTeamDto> all = memberQuerydslJpaRepository.search(new MemberSearchCondition());
+        List<Member> members = memberQuerydslJpaRepository.searchMember(condition);
+        String jpql = searchJpql.jpql(username);
+        String cached = searchJpql.jpql(username);
 
+        //then
+        assertThat(result).isEqualTo(memberQuerydslJpaRepository.searchByBuilder(condition));
+        assertThat(result).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+        assertThat(all).hasSize(4);
+        assertThat(members).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+        assertThat(memberQuerydslJpaRepository.search(sameShape)).isEmpty();
+        assertThat(memberQuerydslJpaRepository.search(sameAge)).extracting("username").containsExactly("member2");
+        assertThat(memberQuerydslJpaRepository.search(ageRange)).extracting("username")
+                .containsExactlyInAnyOrder("member1", "member2", "member3");
+        assertThat(cached).isSameAs(jpql);
+        assertThat(compiles).hasValue(1);
+    }
 
+}
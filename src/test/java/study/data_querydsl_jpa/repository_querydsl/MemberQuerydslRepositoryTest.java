@@ -6,18 +6,33 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import study.data_querydsl_jpa.common.BadRequestException;
+import study.data_querydsl_jpa.dto.CursorPage;
+import study.data_querydsl_jpa.dto.EstimatedPage;
+import study.data_querydsl_jpa.dto.MemberCursor;
 import study.data_querydsl_jpa.dto.MemberSearchCondition;
 import study.data_querydsl_jpa.dto.MemberTeamDto;
 import study.data_querydsl_jpa.entity.Member;
 import study.data_querydsl_jpa.entity.Team;
+import study.data_querydsl_jpa.repository_querydsl.support.CountCache;
+import study.data_querydsl_jpa.repository_querydsl.support.CountMode;
+import study.data_querydsl_jpa.repository_querydsl.support.ParallelChunkExecutor;
+import study.data_querydsl_jpa.repository_querydsl.support.ParallelCountExecutor;
 
 import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.withinPercentage;
 
 @SpringBootTest
 @Transactional
@@ -27,6 +42,12 @@ class MemberQuerydslRepositoryTest {
     EntityManager em;
     @Autowired
     MemberQuerydslRepository memberQuerydslRepository;
+    @Autowired
+    ParallelCountExecutor parallelCountExecutor;
+    @Autowired
+    ParallelChunkExecutor parallelChunkExecutor;
+    @Autowired
+    CountCache countCache;
 
     @BeforeEach
     public void init() {
@@ -125,6 +146,275 @@ class MemberQuerydslRepositoryTest {
         assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
     }
 
+    @Test
+    public void searchSlice() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        //when
+        Slice<MemberTeamDto> first = memberQuerydslRepository.searchSlice(condition, PageRequest.of(0, 2));
+        Slice<MemberTeamDto> last = memberQuerydslRepository.searchSlice(condition, PageRequest.of(1, 2));
+        Slice<MemberTeamDto> byAge = memberQuerydslRepository.searchSlice(condition, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "age")));
+
+        //then
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).extracting("username").containsExactly("member3");
+        assertThat(last.hasNext()).isFalse();
+        assertThat(byAge.getContent()).extracting("username").containsExactly("member3", "member2");
+        assertThat(byAge.hasNext()).isTrue();
+    }
+
+    @Test
+    public void searchPageComplex() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        MemberSearchCondition teamCondition = new MemberSearchCondition();
+        teamCondition.setTeamName("teamB");
+
+        //when
+        Page<MemberTeamDto> result = memberQuerydslRepository.searchPageComplex(condition, PageRequest.of(0, 3));
+        Page<MemberTeamDto> teamResult = memberQuerydslRepository.searchPageComplex(teamCondition, PageRequest.of(0, 1));
+        Page<MemberTeamDto> improved = memberQuerydslRepository.searchPageComplexImproved(condition, PageRequest.of(1, 3));
+        Page<MemberTeamDto> improvedByAge = memberQuerydslRepository.searchPageComplexImproved(condition,
+                PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age")));
+
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(teamResult.getTotalElements()).isEqualTo(2);
+        assertThat(improved.getTotalElements()).isEqualTo(4);
+        assertThat(improved.getContent()).extracting("username").containsExactly("member4");
+        assertThat(improvedByAge.getContent()).extracting("username").containsExactly("member4", "member3", "member2");
+        //허용하지 않는 정렬 속성은 400
+        assertThatThrownBy(() -> memberQuerydslRepository.searchPageComplexImproved(condition, PageRequest.of(0, 3, Sort.by("team.name"))))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    public void searchPageComplexEstimated() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 1_000; i++) {
+            em.persist(new Member("member" + i, i % 100, teamA));
+        }
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        //임계치 0 -> 항상 추정치 사용
+        MemberQuerydslRepositoryImpl alwaysEstimate = new MemberQuerydslRepositoryImpl(em, parallelCountExecutor, parallelChunkExecutor,
+                countCache, new MemberCountEstimator(em, 0));
+
+        //when
+        Page<MemberTeamDto> exact = memberQuerydslRepository.searchPageComplex(condition, pageRequest, CountMode.ESTIMATED);
+        Page<MemberTeamDto> estimated = alwaysEstimate.searchPageComplex(condition, pageRequest, CountMode.ESTIMATED);
+        Page<MemberTeamDto> estimatedLastPage = alwaysEstimate.searchPageComplex(condition, PageRequest.of(142, 7), CountMode.ESTIMATED);
+        Page<MemberTeamDto> estimatedOutOfRange = alwaysEstimate.searchPageComplex(condition, PageRequest.of(500, 7), CountMode.ESTIMATED);
+
+        //then
+        //임계치(100000) 미만이면 count 쿼리로 정확한 total
+        assertThat(exact).isNotInstanceOf(EstimatedPage.class);
+        assertThat(exact.getTotalElements()).isEqualTo(1_000);
+
+        //ROW_COUNT_ESTIMATE 는 커밋 안 된 삭제/다른 테스트가 남긴 row 까지 포함할 수 있는 근사치
+        assertThat(estimated).isInstanceOf(EstimatedPage.class);
+        assertThat(((EstimatedPage<MemberTeamDto>) estimated).isTotalEstimated()).isTrue();
+        assertThat(estimated.getTotalElements()).isCloseTo(1_000L, withinPercentage(50));
+        assertThat(estimated.getContent()).extracting("username")
+                .containsExactly("member0", "member1", "member2", "member3", "member4", "member5", "member6", "member7", "member8", "member9");
+
+        //마지막 페이지(994 ~ 999)는 offset + content 로 정확한 total
+        assertThat(((EstimatedPage<MemberTeamDto>) estimatedLastPage).isTotalEstimated()).isFalse();
+        assertThat(estimatedLastPage.getTotalElements()).isEqualTo(1_000);
+        assertThat(estimatedLastPage.getContent()).extracting("username").containsExactly("member994", "member995",
+                "member996", "member997", "member998", "member999");
+
+        //범위를 벗어난 페이지는 count 쿼리로 정확한 total
+        assertThat(estimatedOutOfRange.getContent()).isEmpty();
+        assertThat(((EstimatedPage<MemberTeamDto>) estimatedOutOfRange).isTotalEstimated()).isFalse();
+        assertThat(estimatedOutOfRange.getTotalElements()).isEqualTo(1_000);
+    }
+
+    @Test
+    public void searchFields() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        MemberSearchCondition ageCondition = new MemberSearchCondition();
+        ageCondition.setAgeGoe(20);
+
+        //when
+        List<Map<String, Object>> usernames = memberQuerydslRepository.searchFields(condition, MemberField.parse("username"));
+        Page<Map<String, Object>> page = memberQuerydslRepository.searchPageFields(ageCondition, MemberField.parse("username, teamId"), PageRequest.of(0, 1));
+        Page<Map<String, Object>> byTeamName = memberQuerydslRepository.searchPageFields(ageCondition, MemberField.parse("username"),
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "teamName")));
+
+        //then
+        assertThat(usernames).extracting(row -> row.get("username")).containsExactlyInAnyOrder("member1", "member2");
+        assertThat(usernames.get(0)).containsOnlyKeys("username");
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent().get(0)).containsOnlyKeys("username", "teamId");
+        assertThat(MemberField.parse(null)).containsExactly(MemberField.values());
+        //team 컬럼을 선택하지 않아도 team 정렬이면 조인한다.
+        assertThat(byTeamName.getContent()).extracting(row -> row.get("username")).containsExactly("member3", "member2");
+        //없는 필드명은 400
+        assertThatThrownBy(() -> MemberField.parse("username,password")).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    public void searchPageDenormalized() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, null));
+
+        teamB.changeName("teamC");
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        MemberSearchCondition renamed = new MemberSearchCondition();
+        renamed.setTeamName("teamC");
+        //두 쿼리는 사용하는 인덱스가 달라서 정렬이 없으면 순서가 다를 수 있다. -> 같은 정렬로 비교
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("memberId"));
+        PageRequest byTeamName = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "teamName"));
+
+        //when
+        Page<MemberTeamDto> result = memberQuerydslRepository.searchPageDenormalized(condition, pageRequest);
+        Page<MemberTeamDto> all = memberQuerydslRepository.searchPageDenormalized(new MemberSearchCondition(), pageRequest);
+        Page<MemberTeamDto> allByTeamName = memberQuerydslRepository.searchPageDenormalized(new MemberSearchCondition(), byTeamName);
+        Page<MemberTeamDto> renamedResult = memberQuerydslRepository.searchPageDenormalized(renamed, pageRequest);
+
+        //then
+        assertThat(result.getContent()).isEqualTo(memberQuerydslRepository.searchPageComplex(condition, pageRequest).getContent());
+        assertThat(all.getContent()).isEqualTo(memberQuerydslRepository.searchPageComplex(new MemberSearchCondition(), pageRequest).getContent());
+        assertThat(allByTeamName.getContent()).isEqualTo(memberQuerydslRepository.searchPageComplex(new MemberSearchCondition(), byTeamName).getContent());
+        assertThat(all.getContent()).extracting("username").containsExactly("member1", "member2", "member3", "member4");
+        assertThat(renamedResult.getContent()).extracting("username").containsExactly("member3");
+        assertThat(renamedResult.getContent()).extracting("teamName").containsExactly("teamC");
+    }
+
+    @Test
+    public void searchPageWithTotal() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50, null));
+
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        //when
+        Page<MemberTeamDto> result = memberQuerydslRepository.searchPageWithTotal(condition, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "age")));
+        Page<MemberTeamDto> outOfRange = memberQuerydslRepository.searchPageWithTotal(condition, PageRequest.of(5, 2));
+
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(result.getContent()).extracting("username").containsExactly("member5", "member4");
+        assertThat(result.getContent()).extracting("teamName").containsExactly(null, "teamB");
+        assertThat(outOfRange.getContent()).isEmpty();
+        assertThat(outOfRange.getTotalElements()).isEqualTo(4);
+        //네이티브 쿼리에 그대로 붙지 않도록 허용 목록에 없는 정렬은 400
+        assertThatThrownBy(() -> memberQuerydslRepository.searchPageWithTotal(condition, PageRequest.of(0, 2, Sort.by("m.password"))))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    public void searchByCursor() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 40, teamA));
+        em.persist(new Member("member2", 30, teamA));
+        em.persist(new Member("member3", 20, teamB));
+        em.persist(new Member("member4", 10, teamB));
+        em.persist(new Member("member5", 10, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        //when
+        CursorPage<MemberTeamDto> first = memberQuerydslRepository.searchByCursor(condition, MemberCursor.SortKey.AGE, null, 2);
+        CursorPage<MemberTeamDto> second = memberQuerydslRepository.searchByCursor(condition, first.getNextCursor(), 2);
+        CursorPage<MemberTeamDto> last = memberQuerydslRepository.searchByCursor(condition, second.getNextCursor(), 2);
+        CursorPage<MemberTeamDto> back = memberQuerydslRepository.searchByCursor(condition, second.getPrevCursor(), 2);
+        CursorPage<MemberTeamDto> unbounded = memberQuerydslRepository.searchByCursor(condition, null, Integer.MAX_VALUE);
+
+        //then
+        assertThat(first.getContent()).extracting("username").containsExactly("member4", "member5");
+        assertThat(first.isHasPrevious()).isFalse();
+        assertThat(first.isHasNext()).isTrue();
+
+        assertThat(second.getContent()).extracting("username").containsExactly("member3", "member2");
+
+        assertThat(last.getContent()).extracting("username").containsExactly("member1");
+        assertThat(last.isHasNext()).isFalse();
+        assertThat(last.isHasPrevious()).isTrue();
+
+        assertThat(back.getContent()).extracting("username").containsExactly("member4", "member5");
+        assertThat(back.isHasPrevious()).isFalse();
+
+        //size 는 2000 으로 제한 (size + 1 overflow 없음)
+        assertThat(unbounded.getSize()).isEqualTo(2000);
+        assertThat(unbounded.getContent()).hasSize(5);
+
+        //잘못된 size, cursor 는 400
+        assertThatThrownBy(() -> memberQuerydslRepository.searchByCursor(condition, null, 0))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> memberQuerydslRepository.searchByCursor(condition, "not-a-cursor", 2))
+                .isInstanceOf(BadRequestException.class);
+        String badAge = Base64.getUrlEncoder().encodeToString("AGE:NEXT:1:abc".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> memberQuerydslRepository.searchByCursor(condition, badAge, 2))
+                .isInstanceOf(BadRequestException.class);
+    }
+
     /**
      * 아래 기술 되는 기능은 스프링 JPA 에서 제공은 하지만 조인되거나 조금만 복잡해줘도 사용이 힘들다.
      * 그냥 편하게 보시면 될 듯 하다.
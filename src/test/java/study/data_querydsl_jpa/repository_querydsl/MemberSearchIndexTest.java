@@ -0,0 +1,180 @@
+package study.data_querydsl_jpa.repository_querydsl;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_querydsl_jpa.dto.MemberSearchCondition;
+import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * db/migration 인덱스를 검색 쿼리가 실제로 사용하는지 EXPLAIN 으로 확인
+ * MemberQuerydslRepositoryImpl 검색 / count 메소드가 실행한 SQL 을 P6Spy 리스너(SqlCapture)로 받아서 그대로 EXPLAIN 한다.
+ * 인덱스 이름은 실행 계획에서 뽑아서(INDEX) 정확히 비교한다. (IDX_MEMBER_TEAM 으로 시작하는 인덱스가 여러개)
+ */
+@SpringBootTest
+@Transactional
+class MemberSearchIndexTest {
+
+    //H2 실행 계획 : PUBLIC.MEMBER M /* PUBLIC.IDX_MEMBER_AGE: AGE >= 10 */ (테이블 스캔은 PUBLIC.MEMBER.TABLESCAN)
+    private static final Pattern INDEX = Pattern.compile("/\\* PUBLIC\\.([A-Z0-9_]+)(?::| \\*/)");
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberQuerydslRepository memberQuerydslRepository;
+    @Autowired
+    SqlCapture sqlCapture;
+
+    @TestConfiguration
+    static class SqlCaptureConfig {
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+    }
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 100; i++) {
+            em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+        sqlCapture.clear();
+    }
+
+    @Test
+    public void usernameEq() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+
+        //when
+        memberQuerydslRepository.search(condition);
+
+        //then
+        assertThat(indexes(sqlCapture.select())).contains("IDX_MEMBER_USERNAME");
+    }
+
+    @Test
+    public void ageRange() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(20);
+
+        //when
+        memberQuerydslRepository.searchPageComplex(condition, PageRequest.of(0, 3));
+
+        //then
+        assertThat(indexes(sqlCapture.select())).contains("IDX_MEMBER_AGE");
+        assertThat(indexes(sqlCapture.count())).containsExactly("IDX_MEMBER_AGE");
+    }
+
+    @Test
+    public void teamNameEq() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        //when
+        memberQuerydslRepository.searchPageComplex(condition, PageRequest.of(0, 3));
+
+        //then
+        //countQuery : team 조건이 있으면 inner join -> team.name 인덱스로 team 을 찾고, team_id 가 선두 컬럼인 복합 인덱스로 member 를 찾는다.
+        assertThat(indexes(sqlCapture.count()))
+                .containsExactlyInAnyOrder("IDX_TEAM_NAME", "IDX_MEMBER_TEAM_AGE_USERNAME");
+    }
+
+    @Test
+    public void teamAndAgeComposite() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(20);
+
+        //when
+        memberQuerydslRepository.searchPageComplex(condition, PageRequest.of(0, 3));
+
+        //then
+        assertThat(indexes(sqlCapture.count()))
+                .containsExactlyInAnyOrder("IDX_TEAM_NAME", "IDX_MEMBER_TEAM_AGE_USERNAME");
+    }
+
+    //실행 계획에서 사용한 인덱스 이름만 순서대로
+    private List<String> indexes(String sql) {
+        String plan = String.valueOf(em.createNativeQuery("explain " + sql).getSingleResult()).toUpperCase(Locale.ROOT);
+        List<String> indexes = new ArrayList<>();
+        Matcher matcher = INDEX.matcher(plan);
+        while (matcher.find()) {
+            indexes.add(matcher.group(1));
+        }
+        return indexes;
+    }
+
+    /**
+     * 실행된 select SQL 을 값이 들어간 형태로 모은다. (use_sql_comments 의 JPQL 주석은 떼어낸다)
+     */
+    static class SqlCapture extends SimpleJdbcEventListener {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            String sql = statementInformation.getSqlWithValues();
+            int commentEnd = sql.startsWith("/*") ? sql.indexOf("*/") : -1;
+            String statement = (commentEnd < 0 ? sql : sql.substring(commentEnd + 2)).trim();
+            if (statement.regionMatches(true, 0, "select", 0, "select".length())) {
+                statements.add(statement);
+            }
+        }
+
+        void clear() {
+            statements.clear();
+        }
+
+        //content 쿼리
+        String select() {
+            return only(statements.stream().filter(sql -> !isCount(sql)).collect(Collectors.toList()));
+        }
+
+        //count 쿼리
+        String count() {
+            return only(statements.stream().filter(SqlCapture::isCount).collect(Collectors.toList()));
+        }
+
+        private static boolean isCount(String sql) {
+            return sql.toLowerCase(Locale.ROOT).startsWith("select count(");
+        }
+
+        private static String only(List<String> sqls) {
+            assertThat(sqls).hasSize(1);
+            return sqls.get(0);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package study.data_querydsl_jpa.repository_querydsl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_querydsl_jpa.dto.MemberSearchCondition;
+import study.data_querydsl_jpa.dto.MemberTeamDto;
+import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.entity.Team;
+import study.data_querydsl_jpa.repository_querydsl.support.PagingStrategy;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberTestRepositoryBySupportTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberTestRepositoryBySupport memberTestRepositoryBySupport;
+
+    @BeforeEach
+    public void init() {
+        em.createQuery("delete from Member m").executeUpdate();
+        em.createQuery("delete from Team t").executeUpdate();
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member4", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member1", 40, teamB));
+    }
+
+    @Test
+    public void applyPaginationImproved() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by("username"));
+
+        //when
+        Page<MemberTeamDto> result = memberTestRepositoryBySupport.applyPaginationImproved(condition, pageRequest);
+
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+    }
+
+    /**
+     * id 만 먼저 페이징 한 뒤 in 절로 조회해도 정렬 순서가 유지되어야 한다.
+     */
+    @Test
+    public void applyPaginationDeferredJoin() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        //when
+        Page<MemberTeamDto> byAge = memberTestRepositoryBySupport.applyPaginationImproved(
+                new MemberSearchCondition(), PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "age")), PagingStrategy.DEFERRED_JOIN);
+        Page<MemberTeamDto> byTeam = memberTestRepositoryBySupport.applyPaginationImproved(
+                condition, PageRequest.of(0, 10, Sort.by("username")), PagingStrategy.DEFERRED_JOIN);
+
+        //then
+        assertThat(byAge.getTotalElements()).isEqualTo(4);
+        assertThat(byAge.getContent()).extracting("username").containsExactly("member2", "member4");
+        assertThat(byTeam.getContent()).extracting("username").containsExactly("member1", "member3");
+        assertThat(byTeam.getContent()).extracting("teamName").containsOnly("teamB");
+    }
+
+    @Test
+    public void applySlice() throws Exception {
+        //when
+        Slice<MemberTeamDto> first = memberTestRepositoryBySupport.applySlice(new MemberSearchCondition(), PageRequest.of(0, 3, Sort.by("username")));
+        Slice<MemberTeamDto> last = memberTestRepositoryBySupport.applySlice(new MemberSearchCondition(), PageRequest.of(1, 3, Sort.by("username")));
+
+        //then
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).extracting("username").containsExactly("member4");
+        assertThat(last.hasNext()).isFalse();
+    }
+}
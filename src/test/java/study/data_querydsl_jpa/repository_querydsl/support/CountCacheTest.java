@@ -0,0 +1,78 @@
+package study.data_querydsl_jpa.repository_querydsl.support;
+
+import org.junit.jupiter.api.Test;
+import study.data_querydsl_jpa.dto.MemberSearchCondition;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountCacheTest {
+
+    @Test
+    public void hitMissInvalidate() throws Exception {
+        //given
+        CountCache countCache = new CountCache(true, 60, 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setUsername("");
+        MemberSearchCondition sameCondition = new MemberSearchCondition();
+        sameCondition.setTeamName("teamA");
+
+        //when
+        long first = countCache.get(condition.normalize(), () -> loads.incrementAndGet() * 10L);
+        long second = countCache.get(sameCondition.normalize(), () -> loads.incrementAndGet() * 10L);
+        countCache.invalidateAll();
+        long afterInvalidate = countCache.get(condition.normalize(), () -> loads.incrementAndGet() * 10L);
+
+        //then
+        assertThat(first).isEqualTo(10);
+        assertThat(second).isEqualTo(10);
+        assertThat(afterInvalidate).isEqualTo(20);
+        assertThat(countCache.snapshot()).containsEntry("hits", 1L).containsEntry("misses", 2L);
+    }
+
+    @Test
+    public void maxSize() throws Exception {
+        //given
+        CountCache countCache = new CountCache(true, 60, 1);
+
+        //when
+        countCache.get("a", () -> 1L);
+        countCache.get("b", () -> 2L);
+        long reloaded = countCache.get("a", () -> 3L);
+
+        //then
+        assertThat(reloaded).isEqualTo(3);
+        assertThat(countCache.snapshot()).containsEntry("size", 1).containsEntry("evictions", 2L);
+    }
+
+    /**
+     * count 쿼리 실행 중에 다른 트랜잭션이 커밋되어 무효화되면(afterCompletion -> invalidateAll)
+     * 무효화 전 데이터로 계산한 count 는 돌려주기만 하고 캐시에 넣지 않는다.
+     */
+    @Test
+    public void skipPutWhenInvalidatedDuringLoad() throws Exception {
+        //given
+        CountCache countCache = new CountCache(true, 60, 10);
+
+        //when
+        long stale = countCache.get("a", () -> {
+            countCache.invalidateAll();
+            return 1L;
+        });
+        long reloaded = countCache.get("a", () -> 2L);
+        long cached = countCache.get("a", () -> 3L);
+
+        //then
+        assertThat(stale).isEqualTo(1);
+        assertThat(reloaded).isEqualTo(2);
+        assertThat(cached).isEqualTo(2);
+        assertThat(countCache.snapshot())
+                .containsEntry("stalePutsSkipped", 1L)
+                .containsEntry("hits", 1L)
+                .containsEntry("misses", 2L);
+    }
+}
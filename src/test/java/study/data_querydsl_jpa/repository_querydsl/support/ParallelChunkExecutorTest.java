@@ -0,0 +1,157 @@
+package study.data_querydsl_jpa.repository_querydsl.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_querydsl_jpa.dto.MemberTeamDto;
+import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.entity.Team;
+import study.data_querydsl_jpa.repository_querydsl.MemberQuerydslRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * chunk 조회는 별도 트랜잭션에서 실행되므로 테스트 데이터는 커밋하고 @AfterEach 에서 지운다.
+ */
+@SpringBootTest
+class ParallelChunkExecutorTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MemberQuerydslRepository memberQuerydslRepository;
+    @Autowired
+    ParallelChunkExecutor parallelChunkExecutor;
+    @Autowired
+    PagingMetrics pagingMetrics;
+
+    List<Long> teamIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("chunkTeam");
+            em.persist(team);
+            for (int i = 0; i < 10; i++) {
+                em.persist(new Member("chunk" + i, i, team));
+            }
+            teamIds.add(team.getId());
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.team.id in :teamIds").setParameter("teamIds", teamIds).executeUpdate();
+            em.createQuery("delete from Team t where t.id in :teamIds").setParameter("teamIds", teamIds).executeUpdate();
+        });
+    }
+
+    /**
+     * IN 절 값이 MAX_CHUNK_SIZE 를 넘으면 chunk 들을 동시에 조회한다. -> 순차 조회와 결과가 같고 /stats/paging 지표에는 섞이지 않는다.
+     */
+    @Test
+    public void searchByUsernamesParallel() throws Exception {
+        //given
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < InLists.MAX_CHUNK_SIZE * 2; i++) {
+            usernames.add("chunk" + i);
+        }
+        Map<String, Object> pagingBefore = pagingMetrics.snapshot();
+        long chunksBefore = (long) parallelChunkExecutor.snapshot().get("parallelChunks");
+        long sequentialBefore = (long) parallelChunkExecutor.snapshot().get("sequentialChunks");
+
+        //when
+        List<MemberTeamDto> parallel = memberQuerydslRepository.searchByUsernames(usernames, true);
+        List<MemberTeamDto> sequential = memberQuerydslRepository.searchByUsernames(usernames, false);
+
+        //then
+        assertThat(sortById(parallel)).containsExactlyElementsOf(sortById(sequential));
+        assertThat(parallel).hasSize(10);
+        Map<String, Object> chunks = parallelChunkExecutor.snapshot();
+        assertThat((long) chunks.get("parallelChunks") + (long) chunks.get("sequentialChunks") - chunksBefore - sequentialBefore)
+                .isEqualTo(2);
+        assertThat(pagingMetrics.snapshot()).isEqualTo(pagingBefore);
+    }
+
+    /**
+     * timeout 은 chunk 마다가 아니라 전체에 적용된다.
+     * chunk 하나씩 기다리면 각각은 timeout(250ms) 안에 끝나므로 (150, 300, 450ms) 450ms 까지 기다리게 된다.
+     */
+    @Test
+    public void timeoutCoversAllChunks() throws Exception {
+        //given
+        ParallelChunkExecutor executor = new ParallelChunkExecutor(transactionManager, 3, 3, 250);
+        long start = System.nanoTime();
+
+        try {
+            //when, then
+            assertThatThrownBy(() -> executor.executeAll(List.of(150L, 300L, 450L), millis -> {
+                sleep(millis);
+                return millis;
+            })).isInstanceOf(QueryTimeoutException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(450);
+            assertThat(executor.snapshot())
+                    .containsEntry("executions", 1L)
+                    .containsEntry("parallelChunks", 3L)
+                    .containsEntry("timeouts", 1L);
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    public void executeAllKeepsInputOrder() throws Exception {
+        //given
+        ParallelChunkExecutor executor = new ParallelChunkExecutor(transactionManager, 1, 1, 3000);
+
+        try {
+            //when : 스레드 1개 + 대기큐 1개 -> 세번째 입력부터는 호출한 스레드에서 실행
+            List<Long> results = executor.executeAll(List.of(30L, 20L, 10L, 0L), millis -> {
+                sleep(millis);
+                return millis;
+            });
+
+            //then
+            assertThat(results).containsExactly(30L, 20L, 10L, 0L);
+            assertThat(executor.snapshot())
+                    .containsEntry("parallelChunks", 2L)
+                    .containsEntry("sequentialChunks", 2L)
+                    .containsEntry("timeouts", 0L);
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    private List<MemberTeamDto> sortById(List<MemberTeamDto> members) {
+        return members.stream()
+                .sorted(Comparator.comparing(MemberTeamDto::getMemberId))
+                .collect(Collectors.toList());
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package study.data_querydsl_jpa.repository_querydsl.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_querydsl_jpa.dto.MemberSearchCondition;
+import study.data_querydsl_jpa.dto.MemberTeamDto;
+import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.entity.Team;
+import study.data_querydsl_jpa.repository_querydsl.MemberQuerydslRepository;
+import study.data_querydsl_jpa.repository_querydsl.MemberTestRepositoryBySupport;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * count 쿼리는 별도 트랜잭션에서 실행되므로 테스트 데이터는 커밋하고 @AfterEach 에서 지운다.
+ */
+@SpringBootTest
+class ParallelCountExecutorTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MemberQuerydslRepository memberQuerydslRepository;
+    @Autowired
+    MemberTestRepositoryBySupport memberTestRepositoryBySupport;
+    @Autowired
+    CountCache countCache;
+
+    List<Long> teamIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("parallelA");
+            Team teamB = new Team("parallelB");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+            em.persist(new Member("member4", 40, teamB));
+            teamIds.add(teamA.getId());
+            teamIds.add(teamB.getId());
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.team.id in :teamIds").setParameter("teamIds", teamIds).executeUpdate();
+            em.createQuery("delete from Team t where t.id in :teamIds").setParameter("teamIds", teamIds).executeUpdate();
+        });
+    }
+
+    @Test
+    public void parallelPageMatchesSequential() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("parallelB");
+        PageRequest pageRequest = PageRequest.of(0, 1);
+
+        //when
+        Page<MemberTeamDto> parallel = memberQuerydslRepository.searchPageComplexParallel(condition, pageRequest);
+        Page<MemberTeamDto> sequential = memberQuerydslRepository.searchPageComplex(condition, pageRequest);
+        Page<MemberTeamDto> supportParallel = memberTestRepositoryBySupport.applyPaginationParallel(condition, pageRequest);
+        Page<MemberTeamDto> supportSequential = memberTestRepositoryBySupport.applyPaginationImproved(condition, pageRequest);
+
+        //then
+        assertThat(parallel.getTotalElements()).isEqualTo(2);
+        assertThat(parallel.getTotalElements()).isEqualTo(sequential.getTotalElements());
+        assertThat(parallel.getTotalPages()).isEqualTo(sequential.getTotalPages());
+        assertThat(supportParallel.getTotalElements()).isEqualTo(supportSequential.getTotalElements()).isEqualTo(2);
+        assertThat(parallel.getContent()).extracting("username").isSubsetOf("member3", "member4");
+    }
+
+    /**
+     * 동시 count 도 count 캐시를 거친다. -> 같은 조건으로 다시 조회하면 count 쿼리 대신 캐시 적중
+     */
+    @Test
+    public void parallelCountUsesCountCache() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("parallelA");
+        PageRequest pageRequest = PageRequest.of(0, 1);
+        memberQuerydslRepository.searchPageComplexParallel(condition, pageRequest);
+        long hitsBefore = (long) countCache.snapshot().get("hits");
+
+        //when
+        Page<MemberTeamDto> cached = memberQuerydslRepository.searchPageComplexParallel(condition, pageRequest);
+
+        //then
+        assertThat(cached.getTotalElements()).isEqualTo(2);
+        assertThat((long) countCache.snapshot().get("hits")).isGreaterThan(hitsBefore);
+    }
+
+    @Test
+    public void parallelMetrics() throws Exception {
+        //given
+        PagingMetrics metrics = new PagingMetrics();
+        ParallelCountExecutor executor = new ParallelCountExecutor(transactionManager, metrics, 1, 1, 3000);
+
+        try {
+            //when
+            Page<String> page = executor.getPage(PageRequest.of(0, 2), () -> List.of("a", "b"), () -> 5L);
+
+            //then
+            assertThat(page.getContent()).containsExactly("a", "b");
+            assertThat(page.getTotalElements()).isEqualTo(5);
+            assertThat(metrics.snapshot())
+                    .containsEntry("parallelPages", 1L)
+                    .containsEntry("sequentialFallbacks", 0L)
+                    .containsEntry("countTimeouts", 0L);
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    /**
+     * 스레드 1개 + 대기큐 1개가 모두 차 있으면 count 를 호출한 스레드에서 순차 실행한다.
+     */
+    @Test
+    public void fallbackWhenPoolIsFull() throws Exception {
+        //given
+        PagingMetrics metrics = new PagingMetrics();
+        ParallelCountExecutor executor = new ParallelCountExecutor(transactionManager, metrics, 1, 1, 3000);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch queued = new CountDownLatch(1);
+
+        try {
+            //스레드를 차지하는 count
+            CompletableFuture<Page<String>> first = CompletableFuture.supplyAsync(() -> executor.getPage(PageRequest.of(0, 1),
+                    List::of, () -> {
+                        running.countDown();
+                        await(release);
+                        return 1L;
+                    }));
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+            //대기큐를 차지하는 count (content 쿼리는 제출이 끝난 뒤 실행된다)
+            CompletableFuture<Page<String>> second = CompletableFuture.supplyAsync(() -> executor.getPage(PageRequest.of(0, 1),
+                    () -> {
+                        queued.countDown();
+                        return List.of();
+                    }, () -> 2L));
+            assertThat(queued.await(5, TimeUnit.SECONDS)).isTrue();
+
+            //when
+            Thread caller = Thread.currentThread();
+            List<Thread> countThreads = new ArrayList<>();
+            Page<String> fallback = executor.getPage(PageRequest.of(0, 1), () -> List.of("c"), () -> {
+                countThreads.add(Thread.currentThread());
+                return 3L;
+            });
+            release.countDown();
+
+            //then
+            assertThat(fallback.getTotalElements()).isEqualTo(3);
+            assertThat(countThreads).containsExactly(caller);
+            assertThat(first.get(5, TimeUnit.SECONDS).getTotalElements()).isEqualTo(1);
+            assertThat(second.get(5, TimeUnit.SECONDS).getTotalElements()).isEqualTo(2);
+            assertThat(metrics.snapshot())
+                    .containsEntry("sequentialFallbacks", 1L)
+                    .containsEntry("parallelPages", 2L);
+        } finally {
+            release.countDown();
+            executor.destroy();
+        }
+    }
+
+    @Test
+    public void countTimeout() throws Exception {
+        //given
+        PagingMetrics metrics = new PagingMetrics();
+        ParallelCountExecutor executor = new ParallelCountExecutor(transactionManager, metrics, 1, 1, 50);
+        CountDownLatch never = new CountDownLatch(1);
+
+        try {
+            //when, then
+            assertThatThrownBy(() -> executor.getPage(PageRequest.of(0, 1), List::of, () -> {
+                await(never);
+                return 1L;
+            })).isInstanceOf(QueryTimeoutException.class);
+            assertThat(metrics.snapshot())
+                    .containsEntry("countTimeouts", 1L)
+                    .containsEntry("parallelPages", 0L);
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package study.data_querydsl_jpa.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_querydsl_jpa.dto.MemberSearchCondition;
+import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberExportServiceTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberExportService memberExportService;
+
+    @BeforeEach
+    public void init() {
+        em.createQuery("delete from Member m").executeUpdate();
+        em.createQuery("delete from Team t").executeUpdate();
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+    }
+
+    @Test
+    public void writeNdjson() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        long rows = memberExportService.writeNdjson(condition, out);
+
+        //then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"username\":\"member1\"").contains("\"teamName\":\"teamA\"");
+        assertThat(lines[1]).contains("\"username\":\"member2\"");
+    }
+
+    @Test
+    public void writeCsv() throws Exception {
+        //given
+        em.persist(new Member("kim, \"junior\"", 5, null));
+        em.flush();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        long rows = memberExportService.writeCsv(out);
+
+        //then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(4);
+        assertThat(lines).hasSize(5);
+        assertThat(lines[0]).isEqualTo("member_id,username,age,team_id,team_name");
+        assertThat(lines[1]).contains(",member1,10,").endsWith(",teamA");
+        assertThat(lines[4]).endsWith(",\"kim, \"\"junior\"\"\",5,,");
+    }
+}
@@ -0,0 +1,132 @@
+package study.data_querydsl_jpa.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_querydsl_jpa.dto.MemberImportResult;
+import study.data_querydsl_jpa.entity.Member;
+import study.data_querydsl_jpa.entity.Team;
+import study.data_querydsl_jpa.repository.TeamStatsUpdater;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * import 는 chunk 마다 커밋하므로 테스트 데이터는 커밋된 상태로 확인하고 @AfterEach 에서 지운다.
+ * (회원 이름은 import 로 시작, 팀 이름은 TEAMS)
+ */
+@SpringBootTest
+class MemberImportServiceTest {
+
+    static final List<String> TEAMS = List.of("importA", "importB", "importC");
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    MemberImportService memberImportService;
+
+    @BeforeEach
+    public void init() {
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Team("importA")));
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> teamIds = em.createQuery("select t.id from Team t where t.name in :names", Long.class)
+                    .setParameter("names", TEAMS)
+                    .getResultList();
+            em.createQuery("delete from Member m where m.username like 'import%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name in :names").setParameter("names", TEAMS).executeUpdate();
+            TeamStatsUpdater.recompute(em, teamIds);
+        });
+    }
+
+    @Test
+    public void importCsv() throws Exception {
+        //given
+        StringBuilder csv = new StringBuilder("username,age,team_name\n");
+        for (int i = 0; i < 2_500; i++) {
+            csv.append("import").append(i).append(',').append(i % 100).append(',').append(i % 2 == 0 ? "importA" : "importB").append('\n');
+        }
+        csv.append("\"import kim, \"\"jr\"\"\",30,\n");
+        csv.append("lee,abc,importA\n");
+        csv.append(",10,importA\n");
+
+        //when
+        MemberImportResult result = memberImportService.importCsv(toStream(csv));
+
+        //then
+        assertThat(result.getImported()).isEqualTo(2_501);
+        assertThat(result.getSkipped()).isEqualTo(2);
+        assertThat(result.getTeamsCreated()).isEqualTo(1);
+        assertThat(result.isAborted()).isFalse();
+        assertThat(result.getErrors()).containsExactly(
+                "2503: age is not a number: abc",
+                "2504: username is empty");
+
+        //커밋된 데이터 확인
+        List<Object[]> teamCounts = em.createQuery("select t.name, count(m) from Member m join m.team t " +
+                        "where t.name in :names group by t.name order by t.name", Object[].class)
+                .setParameter("names", TEAMS)
+                .getResultList();
+        assertThat(teamCounts).extracting(row -> tuple(row[0], row[1]))
+                .containsExactly(tuple("importA", 1_250L), tuple("importB", 1_250L));
+
+        Member kim = em.createQuery("select m from Member m where m.username like 'import kim%'", Member.class).getSingleResult();
+        assertThat(kim.getUsername()).isEqualTo("import kim, \"jr\"");
+        assertThat(kim.getTeamName()).isNull();
+
+        Member member1 = em.createQuery("select m from Member m where m.username = 'import1'", Member.class).getSingleResult();
+        assertThat(member1.getTeamName()).isEqualTo("importB");
+    }
+
+    /**
+     * 두번째 chunk(1001 ~ 2000 번째 줄) 에 저장할 수 없는 줄(username 255자 초과)이 있으면
+     * 첫번째 chunk 는 커밋된 채로 남고, 두번째 chunk 만 롤백한 뒤 import 를 멈춘다.
+     */
+    @Test
+    public void importCsvStopsAtFailedChunk() throws Exception {
+        //given
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            csv.append("import").append(i).append(",20,importA\n");
+        }
+        for (int i = 1_000; i < 1_500; i++) {
+            csv.append("import").append(i).append(",20,importC\n");
+        }
+        csv.append("import").append("x".repeat(300)).append(",20,importA\n");
+        for (int i = 1_501; i < 2_500; i++) {
+            csv.append("import").append(i).append(",20,importA\n");
+        }
+
+        //when
+        MemberImportResult result = memberImportService.importCsv(toStream(csv));
+
+        //then
+        assertThat(result.getImported()).isEqualTo(1_000);
+        assertThat(result.getRolledBack()).isEqualTo(1_000);
+        assertThat(result.isAborted()).isTrue();
+        assertThat(result.getTeamsCreated()).isEqualTo(0);
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(result.getErrors().get(0)).startsWith("1001-2000: rolled back");
+
+        Long committed = em.createQuery("select count(m) from Member m where m.username like 'import%'", Long.class).getSingleResult();
+        assertThat(committed).isEqualTo(1_000);
+        assertThat(em.createQuery("select t from Team t where t.name = 'importC'", Team.class).getResultList()).isEmpty();
+    }
+
+    private ByteArrayInputStream toStream(StringBuilder csv) {
+        return new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}